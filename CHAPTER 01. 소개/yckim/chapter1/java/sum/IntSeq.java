@@ -0,0 +1,120 @@
+package chapter1.java.sum;
+
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+
+// ? Seq의 int 전용판. 원소와 누적값을 박싱하지 않는다.
+@FunctionalInterface
+public interface IntSeq {
+
+    boolean forEachWhile(IntPredicate sink);
+
+    static IntSeq of(int... elements) {
+        return sink -> {
+            for (int element : elements) {
+                if (!sink.test(element)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    // ? [from, to)
+    static IntSeq range(int from, int to) {
+        return sink -> {
+            for (int i = from; i < to; i++) {
+                if (!sink.test(i)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    default IntSeq map(IntUnaryOperator f) {
+        return sink -> forEachWhile(element -> sink.test(f.applyAsInt(element)));
+    }
+
+    default IntSeq filter(IntPredicate p) {
+        return sink -> forEachWhile(element -> !p.test(element) || sink.test(element));
+    }
+
+    default IntSeq take(int n) {
+        return sink -> {
+            if (n <= 0) {
+                return true;
+            }
+            var remaining = new int[]{n};
+            var stopped = new boolean[1];
+            forEachWhile(element -> {
+                if (!sink.test(element)) {
+                    stopped[0] = true;
+                    return false;
+                }
+                return --remaining[0] > 0;
+            });
+            return !stopped[0];
+        };
+    }
+
+    default <R> Seq<R> mapToObj(IntFunction<? extends R> f) {
+        return sink -> forEachWhile(element -> sink.test(f.apply(element)));
+    }
+
+    default LongSeq asLongSeq() {
+        return sink -> forEachWhile(sink::test);
+    }
+
+    default LongSeq mapToLong(IntToLongFunction f) {
+        return sink -> forEachWhile(element -> sink.test(f.applyAsLong(element)));
+    }
+
+    default int fold(int initial, IntBinaryOperator f) {
+        var accumulator = new int[]{initial};
+        forEachWhile(element -> {
+            accumulator[0] = f.applyAsInt(accumulator[0], element);
+            return true;
+        });
+        return accumulator[0];
+    }
+
+    default int sum() {
+        return fold(0, Integer::sum);
+    }
+
+    default OptionalInt first() {
+        var found = new int[1];
+        var present = !forEachWhile(element -> {
+            found[0] = element;
+            return false;
+        });
+        return present ? OptionalInt.of(found[0]) : OptionalInt.empty();
+    }
+
+    default boolean anyMatch(IntPredicate p) {
+        return !forEachWhile(element -> !p.test(element));
+    }
+
+    default int count() {
+        return fold(0, (count, element) -> count + 1);
+    }
+
+    default int[] toArray() {
+        var result = new int[][]{new int[16]};
+        var size = new int[1];
+        forEachWhile(element -> {
+            if (size[0] == result[0].length) {
+                result[0] = Arrays.copyOf(result[0], size[0] * 2);
+            }
+            result[0][size[0]++] = element;
+            return true;
+        });
+        return Arrays.copyOf(result[0], size[0]);
+    }
+}
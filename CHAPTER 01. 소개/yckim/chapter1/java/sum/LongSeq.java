@@ -0,0 +1,111 @@
+package chapter1.java.sum;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+// ? Seq의 long 전용판. 원소와 누적값을 박싱하지 않는다.
+@FunctionalInterface
+public interface LongSeq {
+
+    boolean forEachWhile(LongPredicate sink);
+
+    static LongSeq of(long... elements) {
+        return sink -> {
+            for (long element : elements) {
+                if (!sink.test(element)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    // ? [from, to)
+    static LongSeq range(long from, long to) {
+        return sink -> {
+            for (long i = from; i < to; i++) {
+                if (!sink.test(i)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    default LongSeq map(LongUnaryOperator f) {
+        return sink -> forEachWhile(element -> sink.test(f.applyAsLong(element)));
+    }
+
+    default LongSeq filter(LongPredicate p) {
+        return sink -> forEachWhile(element -> !p.test(element) || sink.test(element));
+    }
+
+    default LongSeq take(int n) {
+        return sink -> {
+            if (n <= 0) {
+                return true;
+            }
+            var remaining = new int[]{n};
+            var stopped = new boolean[1];
+            forEachWhile(element -> {
+                if (!sink.test(element)) {
+                    stopped[0] = true;
+                    return false;
+                }
+                return --remaining[0] > 0;
+            });
+            return !stopped[0];
+        };
+    }
+
+    default <R> Seq<R> mapToObj(LongFunction<? extends R> f) {
+        return sink -> forEachWhile(element -> sink.test(f.apply(element)));
+    }
+
+    default long fold(long initial, LongBinaryOperator f) {
+        var accumulator = new long[]{initial};
+        forEachWhile(element -> {
+            accumulator[0] = f.applyAsLong(accumulator[0], element);
+            return true;
+        });
+        return accumulator[0];
+    }
+
+    default long sum() {
+        return fold(0, Long::sum);
+    }
+
+    default OptionalLong first() {
+        var found = new long[1];
+        var present = !forEachWhile(element -> {
+            found[0] = element;
+            return false;
+        });
+        return present ? OptionalLong.of(found[0]) : OptionalLong.empty();
+    }
+
+    default boolean anyMatch(LongPredicate p) {
+        return !forEachWhile(element -> !p.test(element));
+    }
+
+    default long count() {
+        return fold(0, (count, element) -> count + 1);
+    }
+
+    default long[] toArray() {
+        var result = new long[][]{new long[16]};
+        var size = new int[1];
+        forEachWhile(element -> {
+            if (size[0] == result[0].length) {
+                result[0] = Arrays.copyOf(result[0], size[0] * 2);
+            }
+            result[0][size[0]++] = element;
+            return true;
+        });
+        return Arrays.copyOf(result[0], size[0]);
+    }
+}
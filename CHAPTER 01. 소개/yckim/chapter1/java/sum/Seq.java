@@ -0,0 +1,156 @@
+package chapter1.java.sum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+// ? Vectors.fold를 지연 계산으로 넓힌 것. map, filter, take는 원소를 받을 곳(sink)을 감싸기만 하고
+// ? 마지막 연산(fold, toList 등)이 원본을 한 번 훑을 때 모든 단계가 한 반복문 안에서 실행된다. 중간 컬렉션은 없다.
+// ? sink가 false를 돌려주면 원본 순회도 바로 멈추므로 take나 anyMatch는 필요한 만큼만 읽는다.
+@FunctionalInterface
+public interface Seq<T> {
+
+    // ? 원소를 차례로 sink에 넣는다. sink가 멈추라고 했으면 false, 끝까지 넣었으면 true
+    boolean forEachWhile(Predicate<? super T> sink);
+
+    @SuppressWarnings("unchecked")
+    static <T> Seq<T> of(Iterable<? extends T> source) {
+        if (source instanceof List && source instanceof RandomAccess) {
+            var list = (List<? extends T>) source;
+            return sink -> {
+                for (int i = 0; i < list.size(); i++) {
+                    if (!sink.test(list.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return sink -> {
+            for (T element : source) {
+                if (!sink.test(element)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @SafeVarargs
+    static <T> Seq<T> of(T... elements) {
+        var copy = new ArrayList<T>(elements.length);
+        for (T element : elements) {
+            copy.add(element);
+        }
+        return Seq.of(copy);
+    }
+
+    default <R> Seq<R> map(Function<? super T, ? extends R> f) {
+        return sink -> forEachWhile(element -> sink.test(f.apply(element)));
+    }
+
+    default Seq<T> filter(Predicate<? super T> p) {
+        return sink -> forEachWhile(element -> !p.test(element) || sink.test(element));
+    }
+
+    // ? n개를 넘기면 원본 순회를 멈춘다. 뒤쪽 sink가 멈춘 것이 아니므로 true를 돌려준다.
+    default Seq<T> take(int n) {
+        return sink -> {
+            if (n <= 0) {
+                return true;
+            }
+            var remaining = new int[]{n};
+            var stopped = new boolean[1];
+            forEachWhile(element -> {
+                if (!sink.test(element)) {
+                    stopped[0] = true;
+                    return false;
+                }
+                return --remaining[0] > 0;
+            });
+            return !stopped[0];
+        };
+    }
+
+    default Seq<T> concat(Seq<? extends T> other) {
+        return sink -> forEachWhile(sink) && other.forEachWhile(sink);
+    }
+
+    default IntSeq mapToInt(ToIntFunction<? super T> f) {
+        return sink -> forEachWhile(element -> sink.test(f.applyAsInt(element)));
+    }
+
+    default LongSeq mapToLong(ToLongFunction<? super T> f) {
+        return sink -> forEachWhile(element -> sink.test(f.applyAsLong(element)));
+    }
+
+    @SuppressWarnings("unchecked")
+    default <R> R fold(R initial, java.util.function.BiFunction<R, ? super T, R> f) {
+        var accumulator = new Object[]{initial};
+        forEachWhile(element -> {
+            accumulator[0] = f.apply((R) accumulator[0], element);
+            return true;
+        });
+        return (R) accumulator[0];
+    }
+
+    default Optional<T> reduce(BinaryOperator<T> f) {
+        var state = new ArrayList<T>(1);
+        forEachWhile(element -> {
+            if (state.isEmpty()) {
+                state.add(element);
+            } else {
+                state.set(0, f.apply(state.get(0), element));
+            }
+            return true;
+        });
+        return state.isEmpty() ? Optional.empty() : Optional.of(state.get(0));
+    }
+
+    default Optional<T> first() {
+        var found = new ArrayList<T>(1);
+        forEachWhile(element -> {
+            found.add(element);
+            return false;
+        });
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    default boolean anyMatch(Predicate<? super T> p) {
+        return !forEachWhile(element -> !p.test(element));
+    }
+
+    default int count() {
+        var count = new int[1];
+        forEachWhile(element -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    // ? Stream.toList처럼 고칠 수 없는 리스트를 돌려준다.
+    default List<T> toList() {
+        var result = new ArrayList<T>();
+        forEachWhile(result::add);
+        return Collections.unmodifiableList(result);
+    }
+
+    default Set<T> toSet() {
+        var result = new HashSet<T>();
+        forEachWhile(element -> {
+            result.add(element);
+            return true;
+        });
+        return result;
+    }
+}
@@ -5,10 +5,9 @@ import java.util.Vector;
 public class Vectors {
     private Vectors() {}
     public static Object fold(Vector l, Object initial, BiFunction f) {
-        Object result = initial;
-        for (int i = 0; i < l.size(); i++) {
-            result = f.apply(result, l.get(i));
-        }
-        return result;
+        return fold(Seq.of((Iterable<?>) l), initial, f);
+    }
+    public static Object fold(Seq<?> l, Object initial, BiFunction f) {
+        return l.<Object>fold(initial, f::apply);
     }
 }
@@ -2,7 +2,9 @@ package chapter1.kotlin.sum
 fun main() {
     val numbers = intArrayOf(1, 2, 3)
 
-    val fold = numbers.fold(0, Int::plus)
+    val fold = sum(numbers)
     println(fold)
 
-}
\ No newline at end of file
+}
+
+fun sum(numbers: IntArray): Int = numbers.fold(0, Int::plus)
@@ -0,0 +1,77 @@
+package chapter3.java.email;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// ? 도메인 ID별로 주소를 모아 두어 "hotmail.com 주소 전체"나 도메인별 개수를 전체 순회 없이 조회한다.
+public class DomainIndexedAddresses {
+
+    private final DomainTable domains;
+    private final List<Set<EmailAddress>> byDomain = new ArrayList<>();
+    private int size;
+
+    public DomainIndexedAddresses() {
+        this(new DomainTable());
+    }
+
+    public DomainIndexedAddresses(DomainTable domains) {
+        this.domains = domains;
+    }
+
+    public boolean add(EmailAddress address) {
+        var domain = domains.intern(address.getDomain());
+        var id = domains.idOf(domain);
+        while (byDomain.size() <= id) {
+            byDomain.add(null);
+        }
+        var addresses = byDomain.get(id);
+        if (addresses == null) {
+            addresses = new LinkedHashSet<>();
+            byDomain.set(id, addresses);
+        }
+        var shared = domain == address.getDomain() ?
+                address :
+                new EmailAddress(address.getLocalPart(), domain);
+        if (addresses.add(shared)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean contains(EmailAddress address) {
+        return withDomain(address.getDomain()).contains(address);
+    }
+
+    public Set<EmailAddress> withDomain(String domain) {
+        var id = domains.find(domain);
+        if (id.isEmpty() || id.getAsInt() >= byDomain.size() || byDomain.get(id.getAsInt()) == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(byDomain.get(id.getAsInt()));
+    }
+
+    public int countWithDomain(String domain) {
+        return withDomain(domain).size();
+    }
+
+    public Map<String, Integer> countsByDomain() {
+        var result = new LinkedHashMap<String, Integer>();
+        for (int id = 0; id < byDomain.size(); id++) {
+            var addresses = byDomain.get(id);
+            if (addresses != null) {
+                result.put(domains.domainAt(id), addresses.size());
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+}
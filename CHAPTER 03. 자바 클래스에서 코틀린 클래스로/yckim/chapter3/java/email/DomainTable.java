@@ -0,0 +1,60 @@
+package chapter3.java.email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ? 도메인 문자열을 공유 인스턴스로 인터닝하고, 소문자로 정규화한 도메인마다 정수 ID를 부여한다.
+public class DomainTable {
+
+    private final Map<String, String> instances = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> canonicalDomains = new ArrayList<>();
+
+    public String intern(String domain) {
+        var existing = instances.putIfAbsent(domain, domain);
+        return existing == null ? domain : existing;
+    }
+
+    public int idOf(String domain) {
+        var canonical = canonical(domain);
+        var id = ids.get(canonical);
+        if (id != null) {
+            return id;
+        }
+        synchronized (canonicalDomains) {
+            return ids.computeIfAbsent(canonical, key -> {
+                canonicalDomains.add(key);
+                return canonicalDomains.size() - 1;
+            });
+        }
+    }
+
+    public OptionalInt find(String domain) {
+        var id = ids.get(canonical(domain));
+        return id == null ? OptionalInt.empty() : OptionalInt.of(id);
+    }
+
+    public String domainAt(int id) {
+        synchronized (canonicalDomains) {
+            return canonicalDomains.get(id);
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    // ? 대문자가 없는 흔한 경우에는 새 문자열을 만들지 않는다.
+    private static String canonical(String domain) {
+        for (int i = 0; i < domain.length(); i++) {
+            if (Character.isUpperCase(domain.charAt(i))) {
+                return domain.toLowerCase(Locale.ROOT);
+            }
+        }
+        return domain;
+    }
+}
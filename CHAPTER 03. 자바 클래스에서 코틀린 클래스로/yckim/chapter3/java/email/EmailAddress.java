@@ -7,6 +7,8 @@ public class EmailAddress {
     // ? 1. 값은 불변이기 때문에 필드를 final로 선언
     private final String localPart;
     private final String domain;
+    // ? 불변 객체이므로 String처럼 해시 값을 한 번만 계산해 캐시한다.
+    private int hash;
 
     // ? 3.필드는 생성자에서 초기화
     public EmailAddress(String localPart, String domain) {
@@ -46,7 +48,13 @@ public class EmailAddress {
 
     @Override
     public int hashCode() {
-        return Objects.hash(localPart, domain);
+        var result = hash;
+        if (result == 0) {
+            // ? Objects.hash(localPart, domain)와 같은 값이지만 가변 인자 배열을 만들지 않는다.
+            result = 31 * (31 + Objects.hashCode(localPart)) + Objects.hashCode(domain);
+            hash = result;
+        }
+        return result;
     }
 
     // ? 6. 전자 우편 형식으로 반환
@@ -0,0 +1,139 @@
+package chapter3.java.email;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// ? 같은 주소는 항상 같은 해시를 가지므로 주소 해시로 나눈 파티션끼리는 중복이 생기지 않는다.
+// ? 그래서 파티션마다 독립적으로, 병렬로 중복을 제거할 수 있다.
+// ? 도메인이 아니라 주소 전체로 나누므로 한 도메인이 대부분이어도 파티션 크기가 고르다.
+public class EmailAddressDeduplicator {
+
+    private final int partitions;
+
+    public EmailAddressDeduplicator(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive");
+        }
+        this.partitions = partitions;
+    }
+
+    public List<EmailAddress> distinct(Stream<EmailAddress> addresses) {
+        var buckets = new ArrayList<List<EmailAddress>>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        addresses.forEachOrdered(address -> buckets.get(partitionOf(address)).add(address));
+
+        return IntStream.range(0, partitions)
+                .parallel()
+                .mapToObj(i -> new HashSet<>(buckets.get(i)))
+                .flatMap(HashSet::stream)
+                .toList();
+    }
+
+    // ? 힙에 다 올릴 수 없는 입력은 파티션별 임시 파일로 내려 쓴 뒤 파일 단위로 중복을 제거한다.
+    // ? sink는 여러 스레드에서 호출되므로 스레드 안전해야 한다.
+    public long distinct(
+            Stream<EmailAddress> addresses,
+            Path workDirectory,
+            Consumer<EmailAddress> sink
+    ) throws IOException {
+        var files = new ArrayList<Path>(partitions);
+        try {
+            var writers = new ArrayList<BufferedWriter>(partitions);
+            try {
+                for (int i = 0; i < partitions; i++) {
+                    var file = Files.createTempFile(workDirectory, "addresses-" + i + "-", ".txt");
+                    files.add(file);
+                    writers.add(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+                }
+                addresses.forEachOrdered(address -> {
+                    try {
+                        var writer = writers.get(partitionOf(address));
+                        writer.write(address.toString());
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                closeAll(writers);
+            }
+
+            var count = new AtomicLong();
+            files.parallelStream().forEach(file -> {
+                var seen = new HashSet<EmailAddress>();
+                // ? 내려 쓴 주소를 다시 읽지 못하면 그 주소를 잃게 되므로 건너뛰지 않고 실패한다.
+                try (var partition = EmailAddressFiles.parse(file, line -> {
+                    throw new IllegalStateException("cannot read back line " + line + " of " + file);
+                })) {
+                    partition.forEachOrdered(address -> {
+                        if (seen.add(address)) {
+                            sink.accept(address);
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count.addAndGet(seen.size());
+            });
+            return count.get();
+        } finally {
+            deleteAll(files);
+        }
+    }
+
+    // ? 하나를 닫지 못해도 나머지는 모두 닫고, 처음 실패를 던진다.
+    private static void closeAll(List<? extends Closeable> closeables) throws IOException {
+        IOException failure = null;
+        for (var closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void deleteAll(List<Path> files) throws IOException {
+        IOException failure = null;
+        for (var file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private int partitionOf(EmailAddress address) {
+        var hash = address.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+}
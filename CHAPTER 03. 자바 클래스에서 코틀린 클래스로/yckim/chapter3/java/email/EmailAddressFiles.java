@@ -0,0 +1,194 @@
+package chapter3.java.email;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// ? 한 줄에 하나씩 전자 우편 주소가 담긴 파일을 메모리 매핑으로 읽는다.
+// ? 검증은 EmailAddress.parse와 같은 규칙을 바이트 단위로 수행하고, 유효한 줄에서만 String을 만든다.
+public class EmailAddressFiles {
+
+    private static final long REGION_SIZE = 64L * 1024 * 1024;
+
+    private EmailAddressFiles() {}
+
+    // ? 스트림을 닫으면 파일도 닫힌다. 잘못된 줄은 1부터 시작하는 줄 번호로 onInvalidLine에 전달된다.
+    public static Stream<EmailAddress> parse(Path path, LongConsumer onInvalidLine) throws IOException {
+        var cursor = new LineCursor(path);
+        var spliterator = new Spliterators.AbstractSpliterator<EmailAddress>(
+                Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL
+        ) {
+            @Override
+            public boolean tryAdvance(Consumer<? super EmailAddress> action) {
+                while (cursor.next()) {
+                    if (cursor.isValid()) {
+                        action.accept(cursor.toEmailAddress());
+                        return true;
+                    }
+                    onInvalidLine.accept(cursor.lineNumber);
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
+
+    public static Counts count(Path path, LongConsumer onInvalidLine) throws IOException {
+        long valid = 0;
+        long invalid = 0;
+        try (var cursor = new LineCursor(path)) {
+            while (cursor.next()) {
+                if (cursor.isValid()) {
+                    valid++;
+                } else {
+                    invalid++;
+                    onInvalidLine.accept(cursor.lineNumber);
+                }
+            }
+        }
+        return new Counts(valid, invalid);
+    }
+
+    public static class Counts {
+        private final long valid;
+        private final long invalid;
+
+        public Counts(long valid, long invalid) {
+            this.valid = valid;
+            this.invalid = invalid;
+        }
+
+        public long getValid() {
+            return valid;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        @Override
+        public String toString() {
+            return "Counts[valid=" + valid + ", invalid=" + invalid + "]";
+        }
+    }
+
+    private static class LineCursor implements AutoCloseable {
+        private final FileChannel channel;
+        private final long size;
+
+        private MappedByteBuffer region;
+        private long regionStart;
+        private int position;
+        private byte[] scratch = new byte[256];
+
+        long lineNumber;
+        int lineStart;
+        int lineEnd;
+        int atIndex;
+
+        LineCursor(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            map(0);
+        }
+
+        boolean next() {
+            while (true) {
+                var newline = indexOfNewline(position);
+                if (newline < 0 && regionStart + region.limit() < size) {
+                    // ? 줄이 매핑 영역 경계에 걸쳐 있으면 줄의 시작부터 다시 매핑한다.
+                    if (position == 0) {
+                        throw new UncheckedIOException(new IOException(
+                                "line " + (lineNumber + 1) + " is longer than " + REGION_SIZE + " bytes"
+                        ));
+                    }
+                    remap(regionStart + position);
+                    continue;
+                }
+                if (newline < 0 && position == region.limit()) {
+                    return false;
+                }
+                lineStart = position;
+                lineEnd = newline < 0 ? region.limit() : newline;
+                position = newline < 0 ? region.limit() : newline + 1;
+                if (lineEnd > lineStart && region.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                lineNumber++;
+                atIndex = lastIndexOfAt();
+                return true;
+            }
+        }
+
+        // ? EmailAddress.parse와 같은 규칙: @가 첫 글자 뒤에 있고 마지막 글자가 아니어야 한다.
+        // ? UTF-8에서 '@'(0x40)는 다른 문자의 일부로 나타나지 않으므로 바이트 단위로 찾아도 결과가 같다.
+        boolean isValid() {
+            return atIndex >= 1 && atIndex != lineEnd - lineStart - 1;
+        }
+
+        EmailAddress toEmailAddress() {
+            var length = lineEnd - lineStart;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            region.get(lineStart, scratch, 0, length);
+            return new EmailAddress(
+                    new String(scratch, 0, atIndex, StandardCharsets.UTF_8),
+                    new String(scratch, atIndex + 1, length - atIndex - 1, StandardCharsets.UTF_8)
+            );
+        }
+
+        private int indexOfNewline(int from) {
+            var limit = region.limit();
+            for (int i = from; i < limit; i++) {
+                if (region.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int lastIndexOfAt() {
+            for (int i = lineEnd - 1; i >= lineStart; i--) {
+                if (region.get(i) == '@') {
+                    return i - lineStart;
+                }
+            }
+            return -1;
+        }
+
+        private void remap(long start) {
+            try {
+                map(start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void map(long start) throws IOException {
+            regionStart = start;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+            position = 0;
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package chapter3.java.email;
+
+import java.util.Set;
+
+public class Marketing {
+
+    private static final String HOTMAIL = "hotmail.com";
+
+    public static boolean isHotmailAddress(EmailAddress address) {
+        return address.getDomain().equalsIgnoreCase(HOTMAIL);
+    }
+
+    public static Set<EmailAddress> hotmailAddresses(DomainIndexedAddresses addresses) {
+        return addresses.withDomain(HOTMAIL);
+    }
+
+    public static int hotmailAddressCount(DomainIndexedAddresses addresses) {
+        return addresses.countWithDomain(HOTMAIL);
+    }
+}
@@ -0,0 +1,68 @@
+package chapter3.java.money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CurrencyConverter {
+
+    private static final int[] SCALES = new int[CurrencyIndex.size()];
+
+    static {
+        for (int i = 0; i < SCALES.length; i++) {
+            SCALES[i] = Money.scaleOf(CurrencyIndex.currencyAt(i));
+        }
+    }
+
+    private final RateSource source;
+    private final AtomicReference<ExchangeRates> rates = new AtomicReference<>();
+
+    public CurrencyConverter(RateSource source) {
+        this.source = source;
+        refresh();
+    }
+
+    // ? 새 스냅샷을 통째로 읽은 뒤 한 번에 교체하므로 변환 도중에는 항상 하나의 스냅샷만 보게 된다.
+    public void refresh() {
+        try {
+            rates.set(source.load());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public ExchangeRates getRates() {
+        return rates.get();
+    }
+
+    public Money convert(Money money, Currency to) {
+        var target = CurrencyIndex.indexOf(to);
+        return convert(rates.get(), money, target);
+    }
+
+    // ? 사용자 설정에 맞춰 바꿀 때는 설정의 통화를 넘긴다.
+    public List<Money> convertAll(List<Money> prices, Currency to) {
+        var snapshot = rates.get();
+        var target = CurrencyIndex.indexOf(to);
+        var result = new ArrayList<Money>(prices.size());
+        for (var price : prices) {
+            result.add(convert(snapshot, price, target));
+        }
+        return result;
+    }
+
+    private static Money convert(ExchangeRates snapshot, Money money, int target) {
+        var from = CurrencyIndex.indexOf(money.getCurrency());
+        if (from == target) {
+            return money;
+        }
+        BigDecimal amount = money.getAmount()
+                .multiply(snapshot.rate(from, target))
+                .setScale(SCALES[target], Money.ROUNDING);
+        return Money.of(amount, CurrencyIndex.currencyAt(target));
+    }
+}
@@ -0,0 +1,40 @@
+package chapter3.java.money;
+
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+
+// ? 통화마다 0부터 시작하는 작은 정수 인덱스를 부여해 배열로 값을 다룰 수 있게 한다.
+public final class CurrencyIndex {
+
+    private static final Currency[] CURRENCIES = Currency.getAvailableCurrencies().stream()
+            .sorted(Comparator.comparing(Currency::getCurrencyCode))
+            .toArray(Currency[]::new);
+
+    private static final Map<Currency, Integer> INDEXES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < CURRENCIES.length; i++) {
+            INDEXES.put(CURRENCIES[i], i);
+        }
+    }
+
+    private CurrencyIndex() {}
+
+    public static int size() {
+        return CURRENCIES.length;
+    }
+
+    public static int indexOf(Currency currency) {
+        Integer index = INDEXES.get(currency);
+        if (index == null) {
+            throw new IllegalArgumentException("unknown currency " + currency);
+        }
+        return index;
+    }
+
+    public static Currency currencyAt(int index) {
+        return CURRENCIES[index];
+    }
+}
@@ -0,0 +1,63 @@
+package chapter3.java.money;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Currency;
+import java.util.Map;
+
+// ? 특정 시점의 환율을 담는 불변 스냅샷. 생성할 때 모든 교차 환율을 미리 계산해 둔다.
+public final class ExchangeRates {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+    private final Currency base;
+    private final BigDecimal[][] crossRates;
+
+    private ExchangeRates(Currency base, BigDecimal[][] crossRates) {
+        this.base = base;
+        this.crossRates = crossRates;
+    }
+
+    // ? rates는 기준 통화 1 단위가 각 통화로 얼마인지를 나타낸다.
+    public static ExchangeRates of(Currency base, Map<Currency, BigDecimal> rates) {
+        var perBase = new BigDecimal[CurrencyIndex.size()];
+        perBase[CurrencyIndex.indexOf(base)] = BigDecimal.ONE;
+        rates.forEach((currency, rate) -> {
+            if (rate.signum() <= 0) {
+                throw new IllegalArgumentException("exchange rate must be positive for " + currency);
+            }
+            perBase[CurrencyIndex.indexOf(currency)] = rate;
+        });
+
+        var crossRates = new BigDecimal[CurrencyIndex.size()][];
+        for (int from = 0; from < perBase.length; from++) {
+            if (perBase[from] == null) continue;
+            crossRates[from] = new BigDecimal[CurrencyIndex.size()];
+            for (int to = 0; to < perBase.length; to++) {
+                if (perBase[to] == null) continue;
+                crossRates[from][to] = from == to ?
+                        BigDecimal.ONE :
+                        perBase[to].divide(perBase[from], PRECISION);
+            }
+        }
+        return new ExchangeRates(base, crossRates);
+    }
+
+    public Currency getBase() {
+        return base;
+    }
+
+    public BigDecimal rate(Currency from, Currency to) {
+        return rate(CurrencyIndex.indexOf(from), CurrencyIndex.indexOf(to));
+    }
+
+    BigDecimal rate(int from, int to) {
+        var row = crossRates[from];
+        if (row == null || row[to] == null) {
+            throw new IllegalArgumentException(
+                    "no exchange rate from " + CurrencyIndex.currencyAt(from) + " to " + CurrencyIndex.currencyAt(to)
+            );
+        }
+        return row[to];
+    }
+}
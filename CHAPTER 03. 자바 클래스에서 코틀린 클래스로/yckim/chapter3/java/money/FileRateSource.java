@@ -0,0 +1,41 @@
+package chapter3.java.money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Properties;
+
+// ? 다음과 같은 properties 파일에서 환율을 읽는다.
+// ?   base=GBP
+// ?   USD=1.27
+// ?   EUR=1.17
+public class FileRateSource implements RateSource {
+
+    private final Path path;
+
+    public FileRateSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public ExchangeRates load() throws IOException {
+        var properties = new Properties();
+        try (var reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        var base = properties.getProperty("base");
+        if (base == null) {
+            throw new IOException("missing base currency in " + path);
+        }
+        var rates = new HashMap<Currency, BigDecimal>();
+        for (var name : properties.stringPropertyNames()) {
+            if (!name.equals("base")) {
+                rates.put(Currency.getInstance(name), new BigDecimal(properties.getProperty(name).trim()));
+            }
+        }
+        return ExchangeRates.of(Currency.getInstance(base.trim()), rates);
+    }
+}
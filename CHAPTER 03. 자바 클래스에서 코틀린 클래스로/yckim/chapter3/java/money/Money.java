@@ -1,10 +1,13 @@
 package chapter3.java.money;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Currency;
 import java.util.Objects;
 
 public class Money {
+    static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+
     private final BigDecimal amount;
     private final Currency currency;
 
@@ -16,11 +19,16 @@ public class Money {
 
     public static Money of(BigDecimal amount, Currency currency) {
         return new Money(
-                amount.setScale(currency.getDefaultFractionDigits()),
+                amount.setScale(scaleOf(currency), ROUNDING),
                 currency
         );
     }
 
+    // ? 보조 단위가 없는 통화(XAU, XXX 등)는 getDefaultFractionDigits가 -1이므로 소수 자리 없이 쓴다.
+    static int scaleOf(Currency currency) {
+        return Math.max(0, currency.getDefaultFractionDigits());
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
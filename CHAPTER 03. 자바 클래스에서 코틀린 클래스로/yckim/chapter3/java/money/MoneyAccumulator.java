@@ -0,0 +1,145 @@
+package chapter3.java.money;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collector;
+
+// ? 통화가 섞인 Money를 한 번에 통화별로 합산한다.
+// ? 중간 Money를 만들지 않고 통화 인덱스별 long 합계(스케일이 적용된 정수 값)만 누적한다.
+public class MoneyAccumulator {
+
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private final BitSet seen = new BitSet(CurrencyIndex.size());
+    private final long[] unscaled = new long[CurrencyIndex.size()];
+    private final int[] scales = new int[CurrencyIndex.size()];
+    // ? long 범위를 넘어선 통화만 BigDecimal로 옮겨서 누적
+    private BigDecimal[] overflow;
+
+    public static MoneyAccumulator sumOf(Money... values) {
+        return sumOf(values, 0, values.length);
+    }
+
+    public static MoneyAccumulator parallelSumOf(Money[] values) {
+        return ForkJoinPool.commonPool().invoke(new SumTask(values, 0, values.length));
+    }
+
+    public static Collector<Money, ?, MoneyAccumulator> summing() {
+        return Collector.of(
+                MoneyAccumulator::new,
+                MoneyAccumulator::add,
+                MoneyAccumulator::combine,
+                Collector.Characteristics.UNORDERED
+        );
+    }
+
+    private static MoneyAccumulator sumOf(Money[] values, int from, int to) {
+        var result = new MoneyAccumulator();
+        for (int i = from; i < to; i++) {
+            result.add(values[i]);
+        }
+        return result;
+    }
+
+    public void add(Money money) {
+        var amount = money.getAmount();
+        var index = CurrencyIndex.indexOf(money.getCurrency());
+        if (!seen.get(index)) {
+            seen.set(index);
+            scales[index] = amount.scale();
+        }
+        if (amount.scale() != scales[index] || amount.precision() > 18) {
+            addToOverflow(index, amount);
+            return;
+        }
+        addUnscaled(index, amount.unscaledValue().longValue());
+    }
+
+    public MoneyAccumulator combine(MoneyAccumulator that) {
+        for (int i = that.seen.nextSetBit(0); i >= 0; i = that.seen.nextSetBit(i + 1)) {
+            if (!seen.get(i)) {
+                seen.set(i);
+                scales[i] = that.scales[i];
+            }
+            if (that.scales[i] == scales[i]) {
+                addUnscaled(i, that.unscaled[i]);
+            } else {
+                addToOverflow(i, BigDecimal.valueOf(that.unscaled[i], that.scales[i]));
+            }
+            if (that.overflow != null && that.overflow[i] != null) {
+                addToOverflow(i, that.overflow[i]);
+            }
+        }
+        return this;
+    }
+
+    public Optional<Money> total(Currency currency) {
+        var index = CurrencyIndex.indexOf(currency);
+        return seen.get(index) ? Optional.of(totalAt(index)) : Optional.empty();
+    }
+
+    public Map<Currency, Money> totals() {
+        var result = new LinkedHashMap<Currency, Money>();
+        for (int i = seen.nextSetBit(0); i >= 0; i = seen.nextSetBit(i + 1)) {
+            result.put(CurrencyIndex.currencyAt(i), totalAt(i));
+        }
+        return result;
+    }
+
+    private Money totalAt(int index) {
+        var amount = BigDecimal.valueOf(unscaled[index], scales[index]);
+        if (overflow != null && overflow[index] != null) {
+            amount = amount.add(overflow[index]);
+        }
+        return Money.of(amount, CurrencyIndex.currencyAt(index));
+    }
+
+    private void addUnscaled(int index, long value) {
+        long sum = unscaled[index] + value;
+        // ? 부호가 같은 두 값을 더했는데 결과의 부호가 바뀌었다면 오버플로
+        if (((unscaled[index] ^ sum) & (value ^ sum)) < 0) {
+            addToOverflow(index, BigDecimal.valueOf(value, scales[index]));
+            return;
+        }
+        unscaled[index] = sum;
+    }
+
+    private void addToOverflow(int index, BigDecimal amount) {
+        if (overflow == null) {
+            overflow = new BigDecimal[CurrencyIndex.size()];
+        }
+        overflow[index] = overflow[index] == null ? amount : overflow[index].add(amount);
+    }
+
+    private static class SumTask extends RecursiveTask<MoneyAccumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final Money[] values;
+        private final int from;
+        private final int to;
+
+        SumTask(Money[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected MoneyAccumulator compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return sumOf(values, from, to);
+            }
+            var middle = (from + to) >>> 1;
+            var left = new SumTask(values, from, middle);
+            left.fork();
+            var right = new SumTask(values, middle, to).compute();
+            return left.join().combine(right);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package chapter3.java.money;
+
+import java.io.IOException;
+
+public interface RateSource {
+    ExchangeRates load() throws IOException;
+}
@@ -0,0 +1,51 @@
+package chapter3.java.money;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CurrencyConverterTests {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency XAU = Currency.getInstance("XAU");
+    private static final Currency XXX = Currency.getInstance("XXX");
+
+    private final CurrencyConverter converter = new CurrencyConverter(
+            () -> ExchangeRates.of(USD, Map.of(XAU, new BigDecimal("0.000512")))
+    );
+
+    @Test
+    public void convertsIntoCurrencyWithoutMinorUnit() {
+        var converted = converter.convert(Money.of(new BigDecimal("12345.67"), USD), XAU);
+
+        assertEquals(Money.of(new BigDecimal("6"), XAU), converted);
+        assertEquals(0, converted.getAmount().scale());
+    }
+
+    @Test
+    public void convertsAllIntoCurrencyWithoutMinorUnit() {
+        var converted = converter.convertAll(
+                List.of(Money.of(new BigDecimal("1000"), USD), Money.of(new BigDecimal("3000"), USD)),
+                XAU
+        );
+
+        assertEquals(List.of(Money.of(new BigDecimal("1"), XAU), Money.of(new BigDecimal("2"), XAU)), converted);
+    }
+
+    @Test
+    public void moneyOfCurrencyWithoutMinorUnitRoundsToWholeUnits() {
+        assertEquals(new BigDecimal("2"), Money.of(new BigDecimal("2.5"), XXX).getAmount());
+        assertEquals(new BigDecimal("4"), Money.of(new BigDecimal("3.5"), XXX).getAmount());
+    }
+
+    @Test
+    public void moneyOfRoundsToCurrencyFractionDigits() {
+        assertEquals(new BigDecimal("1.00"), Money.of(new BigDecimal("1.005"), USD).getAmount());
+        assertEquals(new BigDecimal("1.02"), Money.of(new BigDecimal("1.015"), USD).getAmount());
+    }
+}
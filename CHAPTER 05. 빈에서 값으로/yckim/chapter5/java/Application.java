@@ -2,14 +2,23 @@ package chapter5.java;
 
 public class Application {
 
+    // ? 렌더링 결과는 사용자와 무관한 조합별 값이므로 모든 Application이 한 캐시를 같이 쓴다.
+    private static final WelcomeRenderCache SHARED_WELCOME_CACHE = new WelcomeRenderCache();
+
     private final UserPreferences preferences;
+    private final WelcomeRenderCache welcomeCache;
 
     public Application(UserPreferences preferences) {
+        this(preferences, SHARED_WELCOME_CACHE);
+    }
+
+    public Application(UserPreferences preferences, WelcomeRenderCache welcomeCache) {
         this.preferences = preferences;
+        this.welcomeCache = welcomeCache;
     }
 
     public void showWelcome() {
-        new WelcomeView(preferences).show();
+        new WelcomeView(preferences, welcomeCache.render(preferences)).show();
     }
 
     public void editPreferences() {
@@ -0,0 +1,52 @@
+package chapter5.java;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ? 값마다 0부터 차례로 작은 정수 코드를 부여한다. 코드는 한 번 정해지면 바뀌지 않는다.
+class CodeTable<T> {
+
+    private final int maxSize;
+    private final Map<T, Integer> codes = new ConcurrentHashMap<>();
+    private volatile Object[] values = new Object[8];
+    private volatile int size;
+
+    CodeTable(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    int encode(T value) {
+        var code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            code = size;
+            if (code == maxSize) {
+                throw new IllegalStateException("no more than " + maxSize + " distinct values can be encoded");
+            }
+            // ? 두 배씩 늘리므로 값 n개를 넣는 데 드는 복사는 모두 합쳐 O(n)이다.
+            if (code == values.length) {
+                values = Arrays.copyOf(values, Math.min(maxSize, code * 2));
+            }
+            values[code] = value;
+            size = code + 1;
+            codes.put(value, code);
+            return code;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T decode(int code) {
+        return (T) values[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,25 @@
+package chapter5.java;
+
+public final class PickerOption<T> {
+
+    private final T value;
+    private final String label;
+
+    public PickerOption(T value, String label) {
+        this.value = value;
+        this.label = label;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,69 @@
+package chapter5.java;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ? 표시 로케일마다 한 번만 만드는 불변 선택지 목록. 모든 PreferencesView가 공유한다.
+public final class PickerOptions {
+
+    private static final List<String> GREETINGS = List.of("Hello", "Hi", "Welcome", "Good day");
+    private static final Map<Locale, PickerOptions> CATALOG = new ConcurrentHashMap<>();
+
+    private final List<String> greetings;
+    private final List<PickerOption<Locale>> locales;
+    private final List<PickerOption<Currency>> currencies;
+
+    private PickerOptions(
+            List<String> greetings,
+            List<PickerOption<Locale>> locales,
+            List<PickerOption<Currency>> currencies
+    ) {
+        this.greetings = greetings;
+        this.locales = locales;
+        this.currencies = currencies;
+    }
+
+    public static PickerOptions forDisplayLocale(Locale displayLocale) {
+        return CATALOG.computeIfAbsent(displayLocale, PickerOptions::build);
+    }
+
+    // ? 시작할 때 자주 쓰는 표시 로케일의 목록을 병렬로 미리 만들어 둔다.
+    public static void preload(Collection<Locale> displayLocales) {
+        displayLocales.parallelStream().forEach(PickerOptions::forDisplayLocale);
+    }
+
+    public List<String> getGreetings() {
+        return greetings;
+    }
+
+    public List<PickerOption<Locale>> getLocales() {
+        return locales;
+    }
+
+    public List<PickerOption<Currency>> getCurrencies() {
+        return currencies;
+    }
+
+    private static PickerOptions build(Locale displayLocale) {
+        var collator = Collator.getInstance(displayLocale);
+        Comparator<PickerOption<?>> byLabel = Comparator.comparing(PickerOption::getLabel, collator);
+
+        var locales = Arrays.stream(Locale.getAvailableLocales())
+                .filter(locale -> !locale.getDisplayName(displayLocale).isEmpty())
+                .map(locale -> new PickerOption<>(locale, locale.getDisplayName(displayLocale)))
+                .sorted(byLabel)
+                .toList();
+        var currencies = Currency.getAvailableCurrencies().stream()
+                .map(currency -> new PickerOption<>(currency, currency.getDisplayName(displayLocale)))
+                .sorted(byLabel)
+                .toList();
+        return new PickerOptions(GREETINGS, locales, currencies);
+    }
+}
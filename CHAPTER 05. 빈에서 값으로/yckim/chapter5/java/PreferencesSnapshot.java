@@ -0,0 +1,75 @@
+package chapter5.java;
+
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Objects;
+
+// ? 특정 버전의 사용자 설정. 불변이므로 인사말, 로케일, 통화가 항상 한 벌로 일관되게 보인다.
+public final class PreferencesSnapshot {
+
+    private final String greeting;
+    private final Locale locale;
+    private final Currency currency;
+    private final int version;
+
+    public PreferencesSnapshot(String greeting, Locale locale, Currency currency, int version) {
+        this.greeting = greeting;
+        this.locale = locale;
+        this.currency = currency;
+        this.version = version;
+    }
+
+    public String getGreeting() {
+        return greeting;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public PreferencesSnapshot withGreeting(String greeting) {
+        return new PreferencesSnapshot(greeting, locale, currency, version);
+    }
+
+    public PreferencesSnapshot withLocale(Locale locale) {
+        return new PreferencesSnapshot(greeting, locale, currency, version);
+    }
+
+    public PreferencesSnapshot withCurrency(Currency currency) {
+        return new PreferencesSnapshot(greeting, locale, currency, version);
+    }
+
+    public UserPreferences toUserPreferences() {
+        return new UserPreferences(greeting, locale, currency);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PreferencesSnapshot that = (PreferencesSnapshot) o;
+        return version == that.version &&
+                Objects.equals(greeting, that.greeting) &&
+                Objects.equals(locale, that.locale) &&
+                Objects.equals(currency, that.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(greeting, locale, currency, version);
+    }
+
+    @Override
+    public String toString() {
+        return "PreferencesSnapshot[greeting=" + greeting + ", locale=" + locale +
+                ", currency=" + currency + ", version=" + version + "]";
+    }
+}
@@ -1,6 +1,7 @@
 package chapter5.java;
 
 import java.util.Currency;
+import java.util.List;
 import java.util.Locale;
 
 public class PreferencesView extends View {
@@ -14,6 +15,10 @@ public class PreferencesView extends View {
     }
 
     public void show() {
+        var options = PickerOptions.forDisplayLocale(preferences.getLocale());
+        greetingPicker.setOptions(options.getGreetings());
+        localePicker.setOptions(options.getLocales());
+        currencyPicker.setOptions(options.getCurrencies());
         greetingPicker.setGreeting(preferences.getGreeting());
         localePicker.setLocale(preferences.getLocale());
         currencyPicker.setCurrency(preferences.getCurrency());
@@ -23,6 +28,15 @@ public class PreferencesView extends View {
 
 class GreetingPicker {
     private String greeting;
+    private List<String> options = List.of();
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
 
     public String getGreeting() {
         return greeting;
@@ -35,6 +49,15 @@ class GreetingPicker {
 
 class LocalePicker {
     private Locale locale;
+    private List<PickerOption<Locale>> options = List.of();
+
+    public List<PickerOption<Locale>> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<PickerOption<Locale>> options) {
+        this.options = options;
+    }
 
     public Locale getLocale() {
         return locale;
@@ -47,6 +70,15 @@ class LocalePicker {
 
 class CurrencyPicker {
     private Currency currency;
+    private List<PickerOption<Currency>> options = List.of();
+
+    public List<PickerOption<Currency>> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<PickerOption<Currency>> options) {
+        this.options = options;
+    }
 
     public Currency getCurrency() {
         return currency;
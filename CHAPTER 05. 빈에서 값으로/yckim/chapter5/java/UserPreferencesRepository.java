@@ -0,0 +1,212 @@
+package chapter5.java;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// ? 사용자 번호로 위치가 정해지는 고정 길이 레코드 파일에 설정을 저장한다.
+// ?   레코드 = [인사말 코드 int][로케일 코드 int][통화 코드 int]
+// ? 코드는 1부터 시작하고, 0으로 채워진 레코드는 아직 저장하지 않은 사용자다.
+// ? 코드와 실제 값의 대응은 옆에 있는 codes 파일에 저장한다.
+public class UserPreferencesRepository implements AutoCloseable {
+
+    private static final int RECORD_SIZE = 3 * Integer.BYTES;
+    private static final int RECORDS_PER_REGION = 1 << 20;
+
+    private final Path codesFile;
+    private final FileChannel channel;
+    private final int capacity;
+    private final MappedByteBuffer[] regions;
+
+    private final CodeTable<String> greetings = new CodeTable<>(Integer.MAX_VALUE);
+    private final CodeTable<Locale> locales = new CodeTable<>(Integer.MAX_VALUE);
+    private final CodeTable<Currency> currencies = new CodeTable<>(Integer.MAX_VALUE);
+
+    private final Map<Integer, int[]> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private UserPreferencesRepository(Path directory, int capacity, long flushIntervalMillis) throws IOException {
+        this.codesFile = directory.resolve("preferences.codes");
+        this.channel = FileChannel.open(
+                directory.resolve("preferences.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        this.capacity = capacity;
+        this.regions = new MappedByteBuffer[(capacity + RECORDS_PER_REGION - 1) / RECORDS_PER_REGION];
+        loadCodes();
+
+        if (flushIntervalMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "preferences-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    // ? 파일을 열기만 하고 레코드는 처음 접근할 때 영역 단위로 매핑하므로 바로 시작할 수 있다.
+    public static UserPreferencesRepository open(Path directory, int capacity, long flushIntervalMillis) throws IOException {
+        Files.createDirectories(directory);
+        return new UserPreferencesRepository(directory, capacity, flushIntervalMillis);
+    }
+
+    public UserPreferences find(int user) {
+        var codes = pending.get(user);
+        if (codes != null) {
+            return decode(codes[0], codes[1], codes[2]);
+        }
+        var region = regionFor(user);
+        var offset = offsetOf(user);
+        return decode(region.getInt(offset), region.getInt(offset + 4), region.getInt(offset + 8));
+    }
+
+    // ? 변경은 메모리에 모아 두었다가 flush할 때 한꺼번에 파일에 쓴다.
+    public void save(int user, UserPreferences preferences) {
+        checkUser(user);
+        pending.put(user, new int[]{
+                greetings.encode(preferences.getGreeting()) + 1,
+                locales.encode(preferences.getLocale()) + 1,
+                currencies.encode(preferences.getCurrency()) + 1
+        });
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // ? 레코드가 모르는 코드를 가리키지 않도록 코드 파일을 먼저 쓴다.
+        saveCodes();
+        var touched = new boolean[regions.length];
+        for (var entry : pending.entrySet()) {
+            int user = entry.getKey();
+            var codes = entry.getValue();
+            var region = regionFor(user);
+            var offset = offsetOf(user);
+            region.putInt(offset, codes[0]);
+            region.putInt(offset + 4, codes[1]);
+            region.putInt(offset + 8, codes[2]);
+            touched[user / RECORDS_PER_REGION] = true;
+            pending.remove(user, codes);
+        }
+        for (int i = 0; i < regions.length; i++) {
+            if (touched[i]) {
+                regions[i].force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+        channel.close();
+    }
+
+    private UserPreferences decode(int greeting, int locale, int currency) {
+        if (greeting == 0) {
+            return new UserPreferences();
+        }
+        return new UserPreferences(
+                greetings.decode(greeting - 1),
+                locales.decode(locale - 1),
+                currencies.decode(currency - 1)
+        );
+    }
+
+    private MappedByteBuffer regionFor(int user) {
+        checkUser(user);
+        var index = user / RECORDS_PER_REGION;
+        var region = regions[index];
+        if (region == null) {
+            synchronized (regions) {
+                region = regions[index];
+                if (region == null) {
+                    region = map(index);
+                    regions[index] = region;
+                }
+            }
+        }
+        return region;
+    }
+
+    private MappedByteBuffer map(int index) {
+        var first = (long) index * RECORDS_PER_REGION;
+        var records = Math.min(RECORDS_PER_REGION, capacity - first);
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, first * RECORD_SIZE, records * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int offsetOf(int user) {
+        return (user % RECORDS_PER_REGION) * RECORD_SIZE;
+    }
+
+    private void checkUser(int user) {
+        if (user < 0 || user >= capacity) {
+            throw new IndexOutOfBoundsException("user " + user + " is outside of capacity " + capacity);
+        }
+    }
+
+    // ? 코드는 차례로 부여되므로 저장된 순서대로 다시 encode하면 같은 코드를 얻는다.
+    private void loadCodes() throws IOException {
+        if (!Files.exists(codesFile)) {
+            return;
+        }
+        var properties = new Properties();
+        try (var reader = Files.newBufferedReader(codesFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        for (int i = 0; properties.containsKey("greeting." + i); i++) {
+            greetings.encode(properties.getProperty("greeting." + i));
+        }
+        for (int i = 0; properties.containsKey("locale." + i); i++) {
+            locales.encode(Locale.forLanguageTag(properties.getProperty("locale." + i)));
+        }
+        for (int i = 0; properties.containsKey("currency." + i); i++) {
+            currencies.encode(Currency.getInstance(properties.getProperty("currency." + i)));
+        }
+    }
+
+    private void saveCodes() {
+        var properties = new Properties();
+        for (int i = 0; i < greetings.size(); i++) {
+            properties.setProperty("greeting." + i, greetings.decode(i));
+        }
+        for (int i = 0; i < locales.size(); i++) {
+            properties.setProperty("locale." + i, locales.decode(i).toLanguageTag());
+        }
+        for (int i = 0; i < currencies.size(); i++) {
+            properties.setProperty("currency." + i, currencies.decode(i).getCurrencyCode());
+        }
+        try {
+            var temporary = codesFile.resolveSibling(codesFile.getFileName() + ".tmp");
+            try (var writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temporary, codesFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
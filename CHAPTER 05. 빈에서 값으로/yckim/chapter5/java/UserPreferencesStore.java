@@ -0,0 +1,98 @@
+package chapter5.java;
+
+import java.util.Currency;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
+
+// ? 사용자 한 명의 설정을 long 하나에 담는다.
+// ?   [버전 22비트][인사말 코드 16비트][로케일 코드 16비트][통화 코드 10비트]
+// ? long 하나를 읽으므로 읽기는 잠금 없이 항상 일관되고, 쓰기는 버전을 포함한 compare-and-set으로 한다.
+public class UserPreferencesStore {
+
+    private static final int CURRENCY_BITS = 10;
+    private static final int LOCALE_BITS = 16;
+    private static final int GREETING_BITS = 16;
+    private static final int VERSION_BITS = 22;
+
+    private static final int LOCALE_SHIFT = CURRENCY_BITS;
+    private static final int GREETING_SHIFT = LOCALE_SHIFT + LOCALE_BITS;
+    private static final int VERSION_SHIFT = GREETING_SHIFT + GREETING_BITS;
+
+    private static final PreferencesSnapshot DEFAULTS = new PreferencesSnapshot(
+            "Hello", Locale.UK, Currency.getInstance(Locale.UK), 0
+    );
+
+    private final AtomicLongArray users;
+    private final CodeTable<String> greetings = new CodeTable<>(1 << GREETING_BITS);
+    private final CodeTable<Locale> locales = new CodeTable<>(1 << LOCALE_BITS);
+    private final CodeTable<Currency> currencies = new CodeTable<>(1 << CURRENCY_BITS);
+
+    public UserPreferencesStore(int capacity) {
+        this.users = new AtomicLongArray(capacity);
+    }
+
+    public int capacity() {
+        return users.length();
+    }
+
+    // ? 한 번도 저장하지 않은 사용자는 버전 0의 기본 설정을 돌려준다.
+    public PreferencesSnapshot get(int user) {
+        return decode(users.get(user));
+    }
+
+    // ? expected의 버전이 현재 버전과 같을 때만 바꾸고, 성공하면 버전이 하나 올라간다.
+    public boolean compareAndSet(int user, PreferencesSnapshot expected, PreferencesSnapshot update) {
+        var current = users.get(user);
+        if (versionOf(current) != expected.getVersion()) {
+            return false;
+        }
+        return users.compareAndSet(user, current, encode(update, nextVersion(expected.getVersion())));
+    }
+
+    public PreferencesSnapshot update(int user, UnaryOperator<PreferencesSnapshot> change) {
+        while (true) {
+            var current = users.get(user);
+            var snapshot = decode(current);
+            var changed = change.apply(snapshot);
+            var encoded = encode(changed, nextVersion(snapshot.getVersion()));
+            if (users.compareAndSet(user, current, encoded)) {
+                return decode(encoded);
+            }
+        }
+    }
+
+    private long encode(PreferencesSnapshot snapshot, int version) {
+        return ((long) version << VERSION_SHIFT) |
+                ((long) greetings.encode(snapshot.getGreeting()) << GREETING_SHIFT) |
+                ((long) locales.encode(snapshot.getLocale()) << LOCALE_SHIFT) |
+                currencies.encode(snapshot.getCurrency());
+    }
+
+    private PreferencesSnapshot decode(long encoded) {
+        var version = versionOf(encoded);
+        if (version == 0) {
+            return DEFAULTS;
+        }
+        return new PreferencesSnapshot(
+                greetings.decode(field(encoded, GREETING_SHIFT, GREETING_BITS)),
+                locales.decode(field(encoded, LOCALE_SHIFT, LOCALE_BITS)),
+                currencies.decode(field(encoded, 0, CURRENCY_BITS)),
+                version
+        );
+    }
+
+    // ? 버전이 한 바퀴 돌면 0(저장 전 상태)을 건너뛴다.
+    private static int nextVersion(int version) {
+        var next = (version + 1) & ((1 << VERSION_BITS) - 1);
+        return next == 0 ? 1 : next;
+    }
+
+    private static int versionOf(long encoded) {
+        return (int) (encoded >>> VERSION_SHIFT);
+    }
+
+    private static int field(long encoded, int shift, int bits) {
+        return (int) ((encoded >>> shift) & ((1L << bits) - 1));
+    }
+}
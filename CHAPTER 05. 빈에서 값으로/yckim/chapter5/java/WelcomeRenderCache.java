@@ -0,0 +1,102 @@
+package chapter5.java;
+
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// ? 서로 다른 (인사말, 로케일, 통화) 조합은 몇백 개뿐이므로 조합마다 한 번만 렌더링하고 재사용한다.
+public class WelcomeRenderCache {
+
+    private final AtomicReference<Generation> generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public WelcomeRenderCache() {
+        this(WelcomeView.DEFAULT_TEMPLATE);
+    }
+
+    public WelcomeRenderCache(String template) {
+        this.generation = new AtomicReference<>(new Generation(template));
+    }
+
+    public String render(UserPreferences preferences) {
+        var current = generation.get();
+        var key = new Key(preferences.getGreeting(), preferences.getLocale(), preferences.getCurrency());
+        var content = current.contents.get(key);
+        if (content != null) {
+            hits.increment();
+            return content;
+        }
+        misses.increment();
+        return current.contents.computeIfAbsent(key, k ->
+                WelcomeView.render(current.template, k.greeting, k.locale, k.currency)
+        );
+    }
+
+    // ? 템플릿이 바뀌면 세대를 통째로 교체한다. 이전 세대에서 렌더링 중이던 결과는 새 세대에 섞이지 않는다.
+    public void setTemplate(String template) {
+        generation.set(new Generation(template));
+    }
+
+    public String getTemplate() {
+        return generation.get().template;
+    }
+
+    public int size() {
+        return generation.get().contents.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double hitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private static class Generation {
+        private final String template;
+        private final Map<Key, String> contents = new ConcurrentHashMap<>();
+
+        Generation(String template) {
+            this.template = template;
+        }
+    }
+
+    private static class Key {
+        private final String greeting;
+        private final Locale locale;
+        private final Currency currency;
+
+        Key(String greeting, Locale locale, Currency currency) {
+            this.greeting = greeting;
+            this.locale = locale;
+            this.currency = currency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(greeting, key.greeting) &&
+                    Objects.equals(locale, key.locale) &&
+                    Objects.equals(currency, key.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(greeting) + Objects.hashCode(locale)) + Objects.hashCode(currency);
+        }
+    }
+}
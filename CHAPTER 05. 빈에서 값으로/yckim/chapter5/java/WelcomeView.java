@@ -1,10 +1,35 @@
 package chapter5.java;
 
+import java.text.MessageFormat;
+import java.util.Currency;
+import java.util.Locale;
+
 public class WelcomeView extends View {
 
+    public static final String DEFAULT_TEMPLATE = "{0}! Prices are shown in {2} ({1}).";
+
     private final UserPreferences preferences;
+    private final String content;
 
     public WelcomeView(UserPreferences preferences) {
+        this(preferences, render(DEFAULT_TEMPLATE, preferences.getGreeting(), preferences.getLocale(), preferences.getCurrency()));
+    }
+
+    public WelcomeView(UserPreferences preferences, String content) {
         this.preferences = preferences;
+        this.content = content;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    // ? 출력은 인사말, 로케일, 통화만으로 결정된다.
+    public static String render(String template, String greeting, Locale locale, Currency currency) {
+        return new MessageFormat(template, locale).format(new Object[]{
+                greeting,
+                currency.getDisplayName(locale),
+                currency.getSymbol(locale)
+        });
     }
 }
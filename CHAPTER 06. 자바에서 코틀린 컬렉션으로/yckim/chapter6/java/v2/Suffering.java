@@ -1,5 +1,6 @@
 package chapter6.java.v2;
 
+import chapter1.java.sum.Seq;
 import chapter6.java.Journey;
 import chapter6.java.Location;
 
@@ -37,7 +38,7 @@ public class Suffering {
     }
 
     private static List<List<Journey>> bearable(List<List<Journey>> routes) {
-        return routes.stream()
+        return Seq.of(routes)
                 .filter(route -> sufferScoreFor(route) <= 10)
                 .toList();
     }
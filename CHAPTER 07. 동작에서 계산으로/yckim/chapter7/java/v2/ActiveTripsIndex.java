@@ -0,0 +1,148 @@
+package chapter7.java.v2;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// ? 모든 고객의 여행을 계획된 기간이 걸치는 시간 구간(예: 한 시간, 하루)마다 모아 둔다.
+// ? "지금 진행 중인 여행"은 구간 하나만 보면 되므로 고객 전체를 훑지 않는다.
+// ? 여행 기간에 비해 구간이 너무 짧으면 한 여행이 여러 구간에 중복 저장되므로 구간 크기를 적당히 골라야 한다.
+public class ActiveTripsIndex {
+
+    // ? 이보다 많은 구간에 걸치는 여행(몇 달짜리, 9999년에 끝나는 여행 등)은 구간이 이만큼 더 큰 다음 단계에 넣는다.
+    private static final int MAX_BUCKETS_PER_TRIP = 256;
+    // ? 단계는 구간이 이 크기(약 557년)에 이를 때까지 만든다. 마지막 단계에도 맞지 않는 여행만 따로 모아 매번 훑는다.
+    private static final long LONGEST_BUCKET_MILLIS = 1L << 44;
+
+    private final List<Tier> tiers = new ArrayList<>();
+    private final Set<Trip> endlessTrips = new HashSet<>();
+
+    public ActiveTripsIndex(Duration bucket) {
+        var bucketMillis = bucket.toMillis();
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("bucket must be at least a millisecond but was " + bucket);
+        }
+        for (long size = bucketMillis; ; size *= MAX_BUCKETS_PER_TRIP) {
+            tiers.add(new Tier(size));
+            if (size >= LONGEST_BUCKET_MILLIS) {
+                break;
+            }
+        }
+    }
+
+    public void add(Trip trip) {
+        var tier = tierOf(trip);
+        if (tier == null) {
+            endlessTrips.add(trip);
+            return;
+        }
+        for (long b = tier.startBucketOf(trip); b <= tier.endBucketOf(trip); b++) {
+            tier.buckets.computeIfAbsent(b, key -> new HashSet<>()).add(trip);
+        }
+    }
+
+    public void remove(Trip trip) {
+        var tier = tierOf(trip);
+        if (tier == null) {
+            endlessTrips.remove(trip);
+            return;
+        }
+        for (long b = tier.startBucketOf(trip); b <= tier.endBucketOf(trip); b++) {
+            var trips = tier.buckets.get(b);
+            if (trips != null) {
+                trips.remove(trip);
+                if (trips.isEmpty()) {
+                    tier.buckets.remove(b);
+                }
+            }
+        }
+    }
+
+    // ? 단계마다 구간 하나씩만 본다.
+    public List<Trip> activeAt(Instant time) {
+        var result = new ArrayList<Trip>();
+        for (var tier : tiers) {
+            var trips = tier.buckets.get(tier.bucketOf(time.toEpochMilli()));
+            if (trips == null) continue;
+            for (var trip : trips) {
+                if (trip.isPlannedToBeActiveAt(time)) {
+                    result.add(trip);
+                }
+            }
+        }
+        for (var trip : endlessTrips) {
+            if (trip.isPlannedToBeActiveAt(time)) {
+                result.add(trip);
+            }
+        }
+        return result;
+    }
+
+    // ? [from, to) 구간과 계획된 기간이 겹치는 여행. 여러 구간에 걸친 여행은 범위 안의 첫 구간에서만 낸다.
+    // ? 범위 안의 구간 번호를 하나씩 세지 않고 실제로 있는 구간만 훑는다.
+    public List<Trip> activeBetween(Instant from, Instant to) {
+        var result = new ArrayList<Trip>();
+        for (var tier : tiers) {
+            var fromBucket = tier.bucketOf(from.toEpochMilli());
+            var toBucket = tier.bucketOf(to.toEpochMilli() - 1);
+            if (toBucket < fromBucket) continue;
+            for (var entry : tier.buckets.subMap(fromBucket, true, toBucket, true).entrySet()) {
+                for (var trip : entry.getValue()) {
+                    if (Math.max(tier.startBucketOf(trip), fromBucket) == entry.getKey() && overlaps(trip, from, to)) {
+                        result.add(trip);
+                    }
+                }
+            }
+        }
+        for (var trip : endlessTrips) {
+            if (overlaps(trip, from, to)) {
+                result.add(trip);
+            }
+        }
+        return result;
+    }
+
+    private static boolean overlaps(Trip trip, Instant from, Instant to) {
+        return trip.getPlannedStartTime().toInstant().isBefore(to) &&
+                trip.getPlannedEndTime().toInstant().isAfter(from);
+    }
+
+    // ? 여행이 MAX_BUCKETS_PER_TRIP개보다 적은 구간에 걸치는 가장 촘촘한 단계. 없으면 null
+    private Tier tierOf(Trip trip) {
+        for (var tier : tiers) {
+            if (tier.endBucketOf(trip) - tier.startBucketOf(trip) < MAX_BUCKETS_PER_TRIP) {
+                return tier;
+            }
+        }
+        return null;
+    }
+
+    private static class Tier {
+        private final long bucketMillis;
+        private final NavigableMap<Long, Set<Trip>> buckets = new TreeMap<>();
+
+        Tier(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+
+        long startBucketOf(Trip trip) {
+            return bucketOf(trip.getPlannedStartTime().toInstant().toEpochMilli());
+        }
+
+        // ? 끝 시각은 포함하지 않으므로 1밀리초 앞의 구간까지만 걸친다.
+        long endBucketOf(Trip trip) {
+            var start = trip.getPlannedStartTime().toInstant().toEpochMilli();
+            var end = trip.getPlannedEndTime().toInstant().toEpochMilli();
+            return bucketOf(Math.max(start, end - 1));
+        }
+
+        long bucketOf(long epochMillis) {
+            return Math.floorDiv(epochMillis, bucketMillis);
+        }
+    }
+}
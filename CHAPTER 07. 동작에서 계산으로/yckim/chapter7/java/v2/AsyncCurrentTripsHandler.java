@@ -0,0 +1,70 @@
+package chapter7.java.v2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.net.HttpURLConnection.*;
+
+public class AsyncCurrentTripsHandler {
+
+    private final IAsyncTrackTrips tracking;
+
+    private final HandlerMetrics metrics;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public AsyncCurrentTripsHandler(IAsyncTrackTrips tracking) {
+        this(tracking, new HandlerMetrics());
+    }
+
+    public AsyncCurrentTripsHandler(IAsyncTrackTrips tracking, HandlerMetrics metrics) {
+        this.tracking = tracking;
+        this.metrics = metrics;
+    }
+
+    public HandlerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public CompletableFuture<Response> handle(Request request) {
+        var start = System.nanoTime();
+        var customerId = request.getValidQueryParam("customerId");
+        CompletableFuture<Response> response = customerId.isEmpty() ?
+                CompletableFuture.completedFuture(new Response(HTTP_BAD_REQUEST)) :
+                tracking.currentTripFor(customerId.get(), Instant.now())
+                        .thenApply(this::toResponse)
+                        .exceptionally(this::toErrorResponse);
+        return response.whenComplete((result, error) -> {
+            metrics.recordTotal(System.nanoTime() - start);
+            metrics.recordStatus(result == null ? HTTP_INTERNAL_ERROR : result.getStatus());
+        });
+    }
+
+    private Response toResponse(Optional<Trip> currentTrip) {
+        if (currentTrip.isEmpty()) {
+            return new Response(HTTP_NOT_FOUND);
+        }
+        try {
+            return new Response(HTTP_OK, objectMapper.writeValueAsString(currentTrip));
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    // ? 느린 저장소나 꽉 찬 벌크헤드는 스레드를 쌓아 두는 대신 바로 503으로 응답한다.
+    private Response toErrorResponse(Throwable error) {
+        var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException || cause instanceof Bulkhead.BulkheadFullException) {
+            return new Response(HTTP_UNAVAILABLE);
+        }
+        if (cause instanceof MultipleCurrentTripsException) {
+            metrics.recordMultipleCurrentTrips();
+        }
+        return new Response(HTTP_INTERNAL_ERROR);
+    }
+}
@@ -0,0 +1,34 @@
+package chapter7.java.v2;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// ? 동기 ITrackTrips를 전용 Executor에서 실행해 핸들러 스레드가 느린 저장소에 묶이지 않게 한다.
+public class AsyncTracking implements IAsyncTrackTrips {
+
+    private final ITrackTrips tracking;
+    private final Executor executor;
+    private final Bulkhead bulkhead;
+    private final Duration timeout;
+
+    public AsyncTracking(ITrackTrips tracking, Executor executor, Bulkhead bulkhead, Duration timeout) {
+        this.tracking = tracking;
+        this.executor = executor;
+        this.bulkhead = bulkhead;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public CompletableFuture<Optional<Trip>> currentTripFor(String customerId, Instant at) {
+        return bulkhead.call(() -> CompletableFuture.supplyAsync(
+                        () -> tracking.currentTripFor(customerId, at),
+                        executor
+                ))
+                .copy()
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+}
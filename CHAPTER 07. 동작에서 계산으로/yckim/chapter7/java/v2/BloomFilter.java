@@ -0,0 +1,87 @@
+package chapter7.java.v2;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// ? 넣은 적 없는 값은 대부분 "없다"고 바로 답하고, 넣은 값은 절대 "없다"고 답하지 않는 정수 키의 확률적 집합.
+// ? 값을 뺄 수는 없으므로 지워진 값이 많아지면 새로 만들어야 한다.
+// ? 비트는 AtomicLongArray에 두어 쓰는 동안에도 잠금 없이 읽을 수 있다.
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final double targetFalsePositiveRate;
+
+    private BloomFilter(long bits, int hashes, double targetFalsePositiveRate) {
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+        this.bits = bits;
+        this.hashes = hashes;
+        this.targetFalsePositiveRate = targetFalsePositiveRate;
+    }
+
+    // ? 비트 수 m = -n ln p / (ln 2)^2, 해시 수 k = m / n ln 2
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be positive and falsePositiveRate in (0, 1)");
+        }
+        var bits = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        var hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bits, hashes, falsePositiveRate);
+    }
+
+    public void put(int value) {
+        var h1 = mix(value);
+        var h2 = mix(h1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            var bit = Math.floorMod(h1 + i * h2, bits);
+            var mask = 1L << bit;
+            var index = (int) (bit >>> 6);
+            if ((words.get(index) & mask) == 0) {
+                words.getAndAccumulate(index, mask, (word, m) -> word | m);
+            }
+        }
+    }
+
+    public boolean mightContain(int value) {
+        var h1 = mix(value);
+        var h2 = mix(h1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            var bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ? 켜진 비트의 비율로 추정한 현재 거짓 양성률: (켜진 비트 / 전체 비트)^k
+    public double expectedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bits, hashes);
+    }
+
+    public double getTargetFalsePositiveRate() {
+        return targetFalsePositiveRate;
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    // ? 값은 IdDictionary의 촘촘한 정수 키이므로 64비트로 퍼뜨려서 쓴다.
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
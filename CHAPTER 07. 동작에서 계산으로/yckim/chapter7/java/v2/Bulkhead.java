@@ -0,0 +1,45 @@
+package chapter7.java.v2;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// ? 백엔드 하나에 동시에 걸려 있는 조회 수를 제한한다. 자리가 없으면 기다리지 않고 바로 실패한다.
+public class Bulkhead {
+
+    private final int maxInFlight;
+    private final Semaphore permits;
+
+    public Bulkhead(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> work) {
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new BulkheadFullException(maxInFlight));
+        }
+        CompletableFuture<T> result;
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        // ? 시간 초과로 호출자가 먼저 포기해도, 실제 작업이 끝날 때까지 자리는 돌려주지 않는다.
+        result.whenComplete((value, error) -> permits.release());
+        return result;
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public static class BulkheadFullException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BulkheadFullException(int maxInFlight) {
+            super("more than " + maxInFlight + " lookups in flight");
+        }
+    }
+}
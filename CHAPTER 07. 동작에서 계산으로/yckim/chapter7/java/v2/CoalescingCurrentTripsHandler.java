@@ -0,0 +1,34 @@
+package chapter7.java.v2;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+
+// ? 앱이 다시 연결되며 같은 customerId 요청을 한꺼번에 보내면, 조회와 JSON 직렬화를 한 번만 하고
+// ? 만들어진 Response를 함께 돌려준다. Response는 불변이므로 공유해도 안전하다.
+public class CoalescingCurrentTripsHandler {
+
+    private final CurrentTripsHandler handler;
+    private final Clock clock;
+    private final long bucketMillis;
+    private final SingleFlight<CoalescingTracking.Key, Response> responses = new SingleFlight<>();
+
+    public CoalescingCurrentTripsHandler(CurrentTripsHandler handler, Clock clock, Duration bucket) {
+        this.handler = handler;
+        this.clock = clock;
+        this.bucketMillis = bucket.toMillis();
+    }
+
+    public Response handle(Request request) {
+        var customerId = request.getValidQueryParam("customerId");
+        if (customerId.isEmpty()) {
+            return new Response(HTTP_BAD_REQUEST);
+        }
+        var key = new CoalescingTracking.Key(
+                customerId.get(),
+                Math.floorDiv(clock.millis(), bucketMillis)
+        );
+        return responses.run(key, () -> handler.handle(request));
+    }
+}
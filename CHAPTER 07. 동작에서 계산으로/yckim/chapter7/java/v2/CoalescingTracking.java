@@ -0,0 +1,55 @@
+package chapter7.java.v2;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+// ? 같은 고객, 같은 시간 구간의 동시 조회는 Tracking을 한 번만 실행한다.
+public class CoalescingTracking implements ITrackTrips {
+
+    private final ITrackTrips tracking;
+    private final long bucketMillis;
+    private final SingleFlight<Key, Optional<Trip>> lookups = new SingleFlight<>();
+
+    public CoalescingTracking(ITrackTrips tracking, Duration bucket) {
+        this.tracking = tracking;
+        this.bucketMillis = bucket.toMillis();
+    }
+
+    @Override
+    public Optional<Trip> currentTripFor(String customerId, Instant at) {
+        return lookups.run(
+                new Key(customerId, Math.floorDiv(at.toEpochMilli(), bucketMillis)),
+                () -> tracking.currentTripFor(customerId, at)
+        );
+    }
+
+    static final class Key {
+        private final String customerId;
+        private final long bucket;
+
+        Key(String customerId, long bucket) {
+            this.customerId = customerId;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return bucket == key.bucket && customerId.equals(key.customerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * customerId.hashCode() + Long.hashCode(bucket);
+        }
+
+        @Override
+        public String toString() {
+            return customerId + "@" + bucket;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package chapter7.java.v2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// ? 노드마다 이름에서 만든 가상 노드 virtualNodes개를 원 위에 놓고, 키는 시계 방향으로 처음 만나는 노드에 맡긴다.
+// ? 노드를 더하거나 빼면 그 노드의 가상 노드 사이에 있던 키(약 1/N)만 옮겨 간다.
+// ? 가상 노드가 많을수록 노드 사이의 부하 차이가 줄어든다. 스레드 안전하지 않다.
+public class ConsistentHashRing<N> {
+
+    private final int virtualNodes;
+    private final TreeMap<Long, N> ring = new TreeMap<>();
+    private final Map<String, N> nodes = new TreeMap<>();
+
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    public void add(String name, N node) {
+        if (nodes.putIfAbsent(name, node) != null) {
+            throw new IllegalArgumentException("node " + name + " already exists");
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(name + "#" + i), node);
+        }
+    }
+
+    public N remove(String name) {
+        var node = nodes.remove(name);
+        if (node != null) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.remove(hash(name + "#" + i), node);
+            }
+        }
+        return node;
+    }
+
+    public N nodeFor(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("ring has no nodes");
+        }
+        var entry = ring.ceilingEntry(hash(key));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    public List<N> nodes() {
+        return new ArrayList<>(nodes.values());
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    // ? FNV-1a 64비트에 murmur3의 마무리 섞기를 더해 짧고 비슷한 이름도 원 위에 고르게 퍼지게 한다.
+    static long hash(String key) {
+        var h = 0xcbf29ce484222325L;
+        for (var b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
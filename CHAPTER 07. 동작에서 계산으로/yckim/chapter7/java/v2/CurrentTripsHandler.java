@@ -3,6 +3,7 @@ package chapter7.java.v2;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.Instant;
+import java.util.Optional;
 
 import static java.net.HttpURLConnection.*;
 
@@ -10,23 +11,64 @@ public class CurrentTripsHandler {
 
     private final ITrackTrips tracking;
 
+    private final HandlerMetrics metrics;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public CurrentTripsHandler(ITrackTrips tracking) {
+        this(tracking, new HandlerMetrics());
+    }
+
+    public CurrentTripsHandler(ITrackTrips tracking, HandlerMetrics metrics) {
         this.tracking = tracking;
+        this.metrics = metrics;
+    }
+
+    public HandlerMetrics getMetrics() {
+        return metrics;
     }
 
     public Response handle(Request request) {
+        var start = System.nanoTime();
+        var response = respond(request);
+        metrics.recordTotal(System.nanoTime() - start);
+        metrics.recordStatus(response.getStatus());
+        return response;
+    }
+
+    // ? 조회가 예외로 끝나도 걸린 시간은 기록한다.
+    // ? 추적기가 정수 키를 받으면 문자열 ID는 여기서 한 번만 키로 바꾸고, 그 아래는 키로만 찾는다.
+    private Optional<Trip> track(String customerId) {
+        var trackingStart = System.nanoTime();
         try {
-            var customerId = request.getQueryParam("customerId").stream()
-                    .findFirst();
+            if (tracking instanceof IKeyedTrackTrips) {
+                var keyed = (IKeyedTrackTrips) tracking;
+                var customer = keyed.getCustomerIds().find(customerId);
+                return customer < 0 ? Optional.empty() : keyed.currentTripFor(customer, Instant.now());
+            }
+            return tracking.currentTripFor(customerId, Instant.now());
+        } finally {
+            metrics.recordTracking(System.nanoTime() - trackingStart);
+        }
+    }
+
+    private Response respond(Request request) {
+        try {
+            var customerId = request.getValidQueryParam("customerId");
             if (customerId.isEmpty()) {
                 return new Response(HTTP_BAD_REQUEST);
             }
-            var currentTrip = tracking.currentTripFor(customerId.get(), Instant.now());
-            return currentTrip.isPresent() ?
-                    new Response(HTTP_OK, objectMapper.writeValueAsString(currentTrip)) :
-                    new Response(HTTP_NOT_FOUND);
+            var currentTrip = track(customerId.get());
+            var serializationStart = System.nanoTime();
+            if (currentTrip.isEmpty()) {
+                return new Response(HTTP_NOT_FOUND);
+            }
+            var body = objectMapper.writeValueAsString(currentTrip);
+            metrics.recordSerialization(System.nanoTime() - serializationStart);
+            return new Response(HTTP_OK, body);
+        } catch (MultipleCurrentTripsException e) {
+            metrics.recordMultipleCurrentTrips();
+            return new Response(HTTP_INTERNAL_ERROR);
         } catch (Exception e) {
             return new Response(HTTP_INTERNAL_ERROR);
         }
@@ -0,0 +1,99 @@
+package chapter7.java.v2;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class HandlerMetrics {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    // ? HTTP 상태 코드는 100~599 범위이므로 배열 하나로 충분하다.
+    // ? 그 밖의 값은 배열 밖으로 나가지 않도록 따로 센다.
+    private final LongAdder[] statuses = new LongAdder[600];
+    private final LongAdder otherStatuses = new LongAdder();
+    private final LongAdder multipleCurrentTrips = new LongAdder();
+    private final LatencyHistogram tracking = new LatencyHistogram();
+    private final LatencyHistogram serialization = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    public HandlerMetrics() {
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = new LongAdder();
+        }
+    }
+
+    public void recordStatus(int status) {
+        statusCounter(status).increment();
+    }
+
+    public void recordMultipleCurrentTrips() {
+        multipleCurrentTrips.increment();
+    }
+
+    public void recordTracking(long nanos) {
+        tracking.record(nanos);
+    }
+
+    public void recordSerialization(long nanos) {
+        serialization.record(nanos);
+    }
+
+    public void recordTotal(long nanos) {
+        total.record(nanos);
+    }
+
+    public long statusCount(int status) {
+        return statusCounter(status).sum();
+    }
+
+    private LongAdder statusCounter(int status) {
+        return status >= 0 && status < statuses.length ? statuses[status] : otherStatuses;
+    }
+
+    public long multipleCurrentTripsCount() {
+        return multipleCurrentTrips.sum();
+    }
+
+    public LatencyHistogram.Snapshot trackingLatency() {
+        return tracking.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot serializationLatency() {
+        return serialization.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot totalLatency() {
+        return total.snapshot();
+    }
+
+    // ? 한 줄에 지표 하나씩 "이름{라벨} 값" 형태의 텍스트로 내보낸다.
+    public String toText() {
+        var text = new StringBuilder();
+        for (int status = 0; status < statuses.length; status++) {
+            var count = statuses[status].sum();
+            if (count > 0) {
+                text.append("current_trips_responses_total{status=\"").append(status).append("\"} ")
+                        .append(count).append('\n');
+            }
+        }
+        if (otherStatuses.sum() > 0) {
+            text.append("current_trips_responses_total{status=\"other\"} ").append(otherStatuses.sum()).append('\n');
+        }
+        text.append("current_trips_multiple_current_trips_total ").append(multipleCurrentTrips.sum()).append('\n');
+        appendLatency(text, "tracking", tracking.snapshot());
+        appendLatency(text, "serialization", serialization.snapshot());
+        appendLatency(text, "total", total.snapshot());
+        return text.toString();
+    }
+
+    private static void appendLatency(StringBuilder text, String phase, LatencyHistogram.Snapshot snapshot) {
+        for (double quantile : QUANTILES) {
+            text.append("current_trips_latency_nanos{phase=\"").append(phase)
+                    .append("\",quantile=\"").append(quantile).append("\"} ")
+                    .append(snapshot.quantile(quantile)).append('\n');
+        }
+        text.append("current_trips_latency_nanos_count{phase=\"").append(phase).append("\"} ")
+                .append(snapshot.getCount()).append('\n');
+        text.append("current_trips_latency_nanos_mean{phase=\"").append(phase).append("\"} ")
+                .append((long) snapshot.getMean()).append('\n');
+    }
+}
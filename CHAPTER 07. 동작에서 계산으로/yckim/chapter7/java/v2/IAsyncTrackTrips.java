@@ -0,0 +1,9 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface IAsyncTrackTrips {
+    CompletableFuture<Optional<Trip>> currentTripFor(String customerId, Instant at);
+}
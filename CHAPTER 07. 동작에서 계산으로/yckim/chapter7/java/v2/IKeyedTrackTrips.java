@@ -0,0 +1,18 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// ? 고객을 getCustomerIds() 사전의 정수 키로 찾는다. 사전에 없는 고객은 여행도 없다.
+public interface IKeyedTrackTrips extends ITrackTrips {
+
+    IdDictionary getCustomerIds();
+
+    Optional<Trip> currentTripFor(int customer, Instant at);
+
+    @Override
+    default Optional<Trip> currentTripFor(String customerId, Instant at) {
+        var customer = getCustomerIds().find(customerId);
+        return customer < 0 ? Optional.empty() : currentTripFor(customer, at);
+    }
+}
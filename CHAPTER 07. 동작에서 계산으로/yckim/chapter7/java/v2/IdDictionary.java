@@ -0,0 +1,142 @@
+package chapter7.java.v2;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+// ? 외부 문자열 ID에 0부터 차례로 촘촘한 정수 키를 부여한다. 한 번 부여한 키는 바뀌지 않고 재사용하지도 않는다.
+// ? 문자열 -> 키는 개방 주소법 테이블로, 키 -> 문자열은 배열로 찾으므로 항목마다 박싱된 값이나 노드 객체가 없다.
+// ? 읽기는 잠금 없이(낙관적 읽기) 하고, 새 ID를 부여할 때만 쓰기 잠금을 잡는다.
+public class IdDictionary {
+
+    private final StampedLock lock = new StampedLock();
+
+    private Table table = new Table(16);
+    private String[] ids = new String[16];
+    private int size;
+
+    // ? 처음 보는 ID면 새 키를 부여한다.
+    public int keyOf(String id) {
+        var key = find(id);
+        if (key >= 0) {
+            return key;
+        }
+        var stamp = lock.writeLock();
+        try {
+            key = table.find(id, hash(id));
+            if (key >= 0) {
+                return key;
+            }
+            if ((size + 1) * 2 > table.slots.length) {
+                table = table.resized(table.slots.length * 2);
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            key = size;
+            ids[key] = id;
+            table.insert(id, hash(id), key);
+            size++;
+            return key;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // ? 부여된 적이 없으면 -1
+    public int find(String id) {
+        var hash = hash(id);
+        var stamp = lock.tryOptimisticRead();
+        var key = table.find(id, hash);
+        if (lock.validate(stamp)) {
+            return key;
+        }
+        stamp = lock.readLock();
+        try {
+            return table.find(id, hash);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public String idAt(int key) {
+        var stamp = lock.tryOptimisticRead();
+        var current = ids;
+        var count = size;
+        var id = key >= 0 && key < count && key < current.length ? current[key] : null;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                id = key >= 0 && key < size ? ids[key] : null;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (id == null) {
+            throw new IndexOutOfBoundsException("no id for key " + key);
+        }
+        return id;
+    }
+
+    public int size() {
+        var stamp = lock.tryOptimisticRead();
+        var count = size;
+        if (lock.validate(stamp)) {
+            return count;
+        }
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int hash(String id) {
+        var h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ? 크기를 바꿀 때는 새 테이블을 다 채운 뒤 바꿔 끼우므로, 낙관적 읽기는 늘 절반 이상 빈 테이블을 본다.
+    private static final class Table {
+        private final String[] slots;
+        private final int[] keys;
+
+        Table(int capacity) {
+            this.slots = new String[capacity];
+            this.keys = new int[capacity];
+        }
+
+        int find(String id, int hash) {
+            var mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                var slot = slots[i];
+                if (slot == null) {
+                    return -1;
+                }
+                if (slot.equals(id)) {
+                    return keys[i];
+                }
+            }
+        }
+
+        void insert(String id, int hash, int key) {
+            var mask = slots.length - 1;
+            var i = hash & mask;
+            while (slots[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            slots[i] = id;
+        }
+
+        Table resized(int capacity) {
+            var resized = new Table(capacity);
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != null) {
+                    resized.insert(slots[i], hash(slots[i]), keys[i]);
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -1,39 +1,512 @@
 package chapter7.java.v2;
 
+import chapter1.java.sum.Seq;
+
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class InMemoryTrips implements KeyedTrips {
 
-public class InMemoryTrips implements Trips {
+    private static final System.Logger LOG = System.getLogger(InMemoryTrips.class.getName());
 
     private final Clock clock;
 
-    private final Map<String, Set<Trip>> trips = new HashMap<>();
+    // ? 고객의 문자열 ID는 가장자리에서 한 번만 정수 키로 바꾸고, 고객별 자료 구조(필터, 버전, 캐시 포함)는 모두 정수 키를 쓴다.
+    private final IdDictionary customerIds;
+
+    // ? 고객별 여행 집합은 고치지 않고 새 불변 집합으로 바꿔 끼운다. 그래서 읽는 쪽에는 복사 없이 그대로 내준다.
+    private final IntObjectMap<Set<Trip>> trips = new IntObjectMap<>();
+
+    // ? 여행 ID는 사전에 넣지 않는다. 사전은 항목을 지울 수 없어 여행이 지워지고 새로 들어올 때마다 계속 커지기 때문이다.
+    private final Map<String, Trip> tripsById = new HashMap<>();
+
+    // ? 이미 끝난 여행은 콜드 영역으로 옮겨 고객별 작업 집합을 작게 유지한다.
+    private final IntObjectMap<Set<Trip>> endedTrips = new IntObjectMap<>();
+
+    // ? 콜드 영역의 여행은 모두 이 시각 이전에 끝났다.
+    private Instant compactedUntil = Instant.MIN;
+
+    private final ActiveTripsIndex activeTrips;
+
+    // ? 여행이 하나라도 있는 고객의 필터. 대부분의 조회는 여행이 없는 고객이므로 잠금을 잡기 전에 걸러낸다.
+    // ? 여행이 모두 지워진 고객은 필터에 남으므로 staleCustomers가 쌓이면 다시 만든다.
+    // ? 고객이 늘어 필터가 차면 쓰는 쪽에서 바로 더 크게 다시 만든다.
+    private volatile BloomFilter customerFilter;
+    private int staleCustomers;
+    private int filterPutsSinceCheck;
+    private final LongAdder filterNegatives = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+
+    private final List<TripsListener> listeners = new CopyOnWriteArrayList<>();
+
+    // ? 처음 스냅숏을 만들 때 켜진다. 켜진 뒤에는 쓰기마다 바뀐 고객의 여행 집합을 새 버전으로 남긴다.
+    private volatile TripVersions versions;
+    private IntObjectMap<Boolean> changedCustomers = new IntObjectMap<>();
+    // ? 변경이 있던 쓰기의 번호. 리스너는 이 번호로 한 쓰기의 변경을 묶는다.
+    private long lastCommit;
+    private boolean uncommitted;
+
+    private static final int MIN_FILTER_CUSTOMERS = 1 << 10;
+    // ? 거짓 양성률 추정은 비트 배열 전체를 세므로 넣을 때마다가 아니라 이만큼 넣을 때마다 확인한다.
+    private static final int FILTER_PUTS_PER_CHECK = 1 << 10;
+    private static final int CHANGED_CUSTOMERS_TO_REUSE = 64;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
 
     public InMemoryTrips(Clock clock) {
+        this(clock, Duration.ofHours(1));
+    }
+
+    public InMemoryTrips(Clock clock, Duration activeTripsBucket) {
+        this(clock, activeTripsBucket, new IdDictionary());
+    }
+
+    // ? 다른 저장소나 캐시와 같은 고객 키를 쓰려면 사전을 함께 넘긴다.
+    public InMemoryTrips(Clock clock, Duration activeTripsBucket, IdDictionary customerIds) {
         this.clock = clock;
+        this.activeTrips = new ActiveTripsIndex(activeTripsBucket);
+        this.customerIds = customerIds;
+        this.customerFilter = newCustomerFilter(customerIds.size());
     }
 
-    public void addTrip(Trip trip) {
-        var existingTrips = trips.getOrDefault(
-                trip.getCustomerId(),
-                new HashSet<>()
-        );
-        existingTrips.add(trip);
-        trips.put(trip.getCustomerId(), existingTrips);
+    @Override
+    public IdDictionary getCustomerIds() {
+        return customerIds;
+    }
+
+    public void addListener(TripsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TripsListener listener) {
+        listeners.remove(listener);
+    }
+
+    // ? 같은 id의 여행이 이미 있으면 새 여행으로 바꾼다.
+    public synchronized void addTrip(Trip trip) {
+        try {
+            var customer = customerIds.keyOf(trip.getCustomerId());
+            var previous = remove(trip.getId());
+            var previousCustomer = previous == null ? -1 : customerOf(previous, trip, customer);
+            trips.put(customer, with(orEmpty(trips.get(customer)), trip));
+            tripsById.put(trip.getId(), trip);
+            activeTrips.add(trip);
+            putInFilter(customer);
+            markStaleIfEmptied(previousCustomer);
+            tripChanged(previous, previousCustomer, trip, customer);
+        } finally {
+            commitChanges();
+        }
+    }
+
+    // ? 고객별로 묶인 여행을 잠금 한 번으로 넣는다. 고객의 여행 집합은 고객마다 한 번만 찾는다.
+    // ? addTrip과 마찬가지로 같은 id는 나중에 넣은 여행이 남는다.
+    // ? 잘못된 항목이 있으면 아무것도 바꾸지 않고 실패한다.
+    public synchronized void addTrips(Map<String, ? extends Collection<Trip>> tripsByCustomer) {
+        tripsByCustomer.forEach((customerId, batch) -> {
+            for (var trip : batch) {
+                if (!customerId.equals(trip.getCustomerId())) {
+                    throw new IllegalArgumentException(
+                            "trip " + trip.getId() + " does not belong to customer " + customerId
+                    );
+                }
+            }
+        });
+        // ? 리스너가 실패해 도중에 멈춰도 이미 바뀐 고객은 커밋한다. 그래야 다음 쓰기의 버전에 섞여 들어가지 않는다.
+        try {
+            tripsByCustomer.forEach((customerId, batch) -> addAll(customerIds.keyOf(customerId), batch));
+        } finally {
+            commitChanges();
+        }
+    }
+
+    // ? 적재처럼 고객을 이미 getCustomerIds()의 키로 바꿔 둔 쪽이 쓴다. 검사와 적용은 문자열 판과 같다.
+    public synchronized void addTrips(IntObjectMap<? extends Collection<Trip>> tripsByCustomer) {
+        var customers = tripsByCustomer.keys();
+        for (var customer : customers) {
+            var customerId = customerIds.idAt(customer);
+            for (var trip : tripsByCustomer.get(customer)) {
+                if (!customerId.equals(trip.getCustomerId())) {
+                    throw new IllegalArgumentException(
+                            "trip " + trip.getId() + " does not belong to customer " + customerId
+                    );
+                }
+            }
+        }
+        try {
+            for (var customer : customers) {
+                addAll(customer, tripsByCustomer.get(customer));
+            }
+        } finally {
+            commitChanges();
+        }
+    }
+
+    public synchronized Optional<Trip> updateTrip(Trip trip) {
+        var previous = tripById(trip.getId());
+        addTrip(trip);
+        return previous;
+    }
+
+    public synchronized Optional<Trip> removeTrip(String tripId) {
+        var removed = remove(tripId);
+        if (removed != null) {
+            try {
+                var customer = customerIds.find(removed.getCustomerId());
+                markStaleIfEmptied(customer);
+                tripChanged(removed, customer, null, -1);
+            } finally {
+                commitChanges();
+            }
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    public synchronized Optional<Trip> tripById(String tripId) {
+        return Optional.ofNullable(tripsById.get(tripId));
+    }
+
+    // ? 문자열 ID로 찾는 쪽은 여기서 한 번 키로 바꾼다. 사전에 없는 고객은 여행이 없다.
+    @Override
+    public boolean mayHaveTripsFor(String customerId) {
+        return mayHaveTripsFor(customerIds.find(customerId));
     }
 
     @Override
     public Set<Trip> tripsFor(String customerId) {
-        return trips.getOrDefault(customerId, Collections.emptySet());
+        return tripsFor(customerIds.find(customerId));
     }
 
     @Override
     public Set<Trip> currentTripsFor(String customerId, Instant at) {
-        return tripsFor(customerId).stream()
-                .filter(trip -> trip.isPlannedToBeActiveAt(at))
-                .collect(Collectors.toSet());
+        return currentTripsFor(customerIds.find(customerId), at);
+    }
+
+    @Override
+    public boolean mayHaveTripsFor(int customer) {
+        if (customer >= 0 && customerFilter.mightContain(customer)) {
+            return true;
+        }
+        filterNegatives.increment();
+        return false;
+    }
+
+    @Override
+    public Set<Trip> tripsFor(int customer) {
+        if (!mayHaveTripsFor(customer)) {
+            return Collections.emptySet();
+        }
+        var result = allTripsOf(customer);
+        if (result.isEmpty()) {
+            filterFalsePositives.increment();
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Trip> currentTripsFor(int customer, Instant at) {
+        if (!mayHaveTripsFor(customer)) {
+            return Collections.emptySet();
+        }
+        synchronized (this) {
+            if (!hasTrips(customer)) {
+                filterFalsePositives.increment();
+                return Collections.emptySet();
+            }
+            var candidates = Seq.of(orEmpty(trips.get(customer)));
+            // ? 콜드 영역은 과거 시각을 물어볼 때만 본다.
+            if (at.isBefore(compactedUntil)) {
+                candidates = candidates.concat(Seq.of(orEmpty(endedTrips.get(customer))));
+            }
+            return candidates
+                    .filter(trip -> trip.isPlannedToBeActiveAt(at))
+                    .toSet();
+        }
+    }
+
+    // ? 이 저장소에 고객의 여행이 하나라도 있는지. 필터를 거치지 않는다.
+    public synchronized boolean hasTrips(int customer) {
+        return trips.containsKey(customer) || endedTrips.containsKey(customer);
+    }
+
+    // ? 지금까지 커밋된 쓰기를 모두, 그 뒤의 쓰기는 하나도 보지 않는 스냅숏. 배치는 통째로 보이거나 안 보인다.
+    public TripsSnapshot snapshot() {
+        var current = versions;
+        if (current == null) {
+            synchronized (this) {
+                current = versions;
+                if (current == null) {
+                    current = new TripVersions();
+                    var version = current.begin();
+                    for (int customer = 0; customer < customerIds.size(); customer++) {
+                        if (hasTrips(customer)) {
+                            current.put(customer, allTripsOf(customer), version);
+                        }
+                    }
+                    current.commit(version);
+                    versions = current;
+                }
+            }
+        }
+        return new TripsSnapshot(current, current.pin(), customerIds);
+    }
+
+    // ? 콜드 영역으로 옮긴 여행은 색인에서도 빠지므로, compactedUntil 이전 시각에는 이미 끝난 여행이 답에 없다.
+    public synchronized List<Trip> activeTripsAt(Instant at) {
+        return activeTrips.activeAt(at);
+    }
+
+    public synchronized List<Trip> activeTripsBetween(Instant from, Instant to) {
+        return activeTrips.activeBetween(from, to);
+    }
+
+    // ? 지금 기준으로 이미 끝난 여행을 콜드 영역으로 옮기고 옮긴 개수를 돌려준다.
+    public synchronized int compactEndedTrips() {
+        var now = clock.instant();
+        var moved = 0;
+        for (var customer : trips.keys()) {
+            var customerTrips = trips.get(customer);
+            var ended = new ArrayList<Trip>();
+            for (var trip : customerTrips) {
+                if (!trip.getPlannedEndTime().toInstant().isAfter(now)) {
+                    ended.add(trip);
+                }
+            }
+            if (ended.isEmpty()) {
+                continue;
+            }
+            var hot = new HashSet<Trip>(customerTrips);
+            ended.forEach(hot::remove);
+            if (hot.isEmpty()) {
+                trips.remove(customer);
+            } else {
+                trips.put(customer, Collections.unmodifiableSet(hot));
+            }
+            var cold = new HashSet<Trip>(orEmpty(endedTrips.get(customer)));
+            cold.addAll(ended);
+            endedTrips.put(customer, Collections.unmodifiableSet(cold));
+            // ? 전체 색인에도 끝나지 않은 여행만 남겨 작게 유지한다.
+            for (var trip : ended) {
+                activeTrips.remove(trip);
+            }
+            moved += ended.size();
+        }
+        compactedUntil = now;
+        return moved;
+    }
+
+    // ? 지금 여행이 있는 고객만으로 필터를 다시 만든다. 고객 수가 늘었으면 그만큼 크게 만든다.
+    public synchronized void rebuildCustomerFilter() {
+        var customers = new BitSet(customerIds.size());
+        for (var customer : trips.keys()) {
+            customers.set(customer);
+        }
+        for (var customer : endedTrips.keys()) {
+            customers.set(customer);
+        }
+        var filter = newCustomerFilter(customers.cardinality());
+        for (int customer = customers.nextSetBit(0); customer >= 0; customer = customers.nextSetBit(customer + 1)) {
+            filter.put(customer);
+        }
+        customerFilter = filter;
+        staleCustomers = 0;
+    }
+
+    // ? 지워진 고객이 있거나 필터가 가득 차 거짓 양성률이 목표의 두 배를 넘으면 다시 만든다.
+    // ? 가득 찬 필터는 쓰기에서도 다시 만들므로, 주기적으로 돌리는 것은 주로 지워진 고객을 비우기 위해서다.
+    public ScheduledFuture<?> scheduleFilterRebuild(ScheduledExecutorService scheduler, Duration interval) {
+        return scheduler.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        boolean rebuild;
+                        synchronized (this) {
+                            rebuild = staleCustomers > 0;
+                        }
+                        var filter = customerFilter;
+                        if (rebuild || filter.expectedFalsePositiveRate() > filter.getTargetFalsePositiveRate() * 2) {
+                            rebuildCustomerFilter();
+                        }
+                    } catch (RuntimeException e) {
+                        LOG.log(System.Logger.Level.WARNING, "customer filter rebuild failed", e);
+                    }
+                },
+                interval.toMillis(),
+                interval.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    // ? 필터가 "있을 수도 있다"고 했지만 실제로는 여행이 없던 비율(시작 이후 누적). FP / (FP + TN)
+    public double observedFilterFalsePositiveRate() {
+        var falsePositives = filterFalsePositives.sum();
+        var total = falsePositives + filterNegatives.sum();
+        return total == 0 ? 0 : (double) falsePositives / total;
+    }
+
+    public double expectedFilterFalsePositiveRate() {
+        return customerFilter.expectedFalsePositiveRate();
+    }
+
+    public ScheduledFuture<?> scheduleCompaction(ScheduledExecutorService scheduler, Duration interval) {
+        // ? 예외가 밖으로 나가면 scheduleWithFixedDelay가 이후 실행을 모두 멈추므로 기록만 하고 삼킨다.
+        return scheduler.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        compactEndedTrips();
+                    } catch (RuntimeException e) {
+                        LOG.log(System.Logger.Level.WARNING, "trip compaction failed", e);
+                    }
+                },
+                interval.toMillis(),
+                interval.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private Trip remove(String tripId) {
+        var existing = tripsById.remove(tripId);
+        if (existing == null) {
+            return null;
+        }
+        var customer = customerIds.find(existing.getCustomerId());
+        removeFrom(trips, customer, existing);
+        removeFrom(endedTrips, customer, existing);
+        activeTrips.remove(existing);
+        return existing;
+    }
+
+    private void addAll(int customer, Collection<Trip> batch) {
+        putInFilter(customer);
+        for (var trip : batch) {
+            var previous = remove(trip.getId());
+            var previousCustomer = previous == null ? -1 : customerOf(previous, trip, customer);
+            trips.put(customer, with(orEmpty(trips.get(customer)), trip));
+            tripsById.put(trip.getId(), trip);
+            activeTrips.add(trip);
+            markStaleIfEmptied(previousCustomer);
+            tripChanged(previous, previousCustomer, trip, customer);
+        }
+    }
+
+    // ? 다시 만들 때는 trips에 이미 있는 고객만 들어가므로, 확인을 먼저 하고 나서 넣는다.
+    private void putInFilter(int customer) {
+        if (++filterPutsSinceCheck >= FILTER_PUTS_PER_CHECK) {
+            filterPutsSinceCheck = 0;
+            var filter = customerFilter;
+            if (filter.expectedFalsePositiveRate() > filter.getTargetFalsePositiveRate() * 2) {
+                rebuildCustomerFilter();
+            }
+        }
+        customerFilter.put(customer);
+    }
+
+    // ? 지금 고객 수의 두 배를 담을 수 있게 만든다.
+    private static BloomFilter newCustomerFilter(long customers) {
+        return BloomFilter.create(Math.max(MIN_FILTER_CUSTOMERS, customers * 2), FILTER_FALSE_POSITIVE_RATE);
+    }
+
+    // ? 바꿔 넣는 여행은 대개 고객이 같으므로 사전을 다시 찾지 않는다.
+    private int customerOf(Trip previous, Trip trip, int customer) {
+        return previous.getCustomerId().equals(trip.getCustomerId()) ? customer : customerIds.find(previous.getCustomerId());
+    }
+
+    // ? 바꿔 넣기는 지운 뒤 다시 넣으므로, 다시 넣은 뒤에도 원래 고객의 여행이 하나도 없을 때만 필터가 낡은 것이다.
+    private void markStaleIfEmptied(int previousCustomer) {
+        if (previousCustomer >= 0 && !hasTrips(previousCustomer)) {
+            staleCustomers++;
+        }
+    }
+
+    private void tripChanged(Trip before, int beforeCustomer, Trip after, int afterCustomer) {
+        uncommitted = true;
+        if (versions != null) {
+            if (before != null) {
+                changedCustomers.put(beforeCustomer, Boolean.TRUE);
+            }
+            if (after != null) {
+                changedCustomers.put(afterCustomer, Boolean.TRUE);
+            }
+        }
+        for (var listener : listeners) {
+            listener.tripChanged(before, after);
+        }
+    }
+
+    // ? 한 번의 쓰기(배치 포함)에서 바뀐 고객들을 같은 버전으로 남긴 뒤 커밋하고, 리스너에게 커밋을 알린다.
+    private void commitChanges() {
+        if (!uncommitted) {
+            return;
+        }
+        uncommitted = false;
+        var commit = ++lastCommit;
+        commitVersions();
+        for (var listener : listeners) {
+            listener.committed(commit);
+        }
+    }
+
+    private void commitVersions() {
+        var current = versions;
+        if (current == null || changedCustomers.isEmpty()) {
+            return;
+        }
+        var version = current.begin();
+        for (var customer : changedCustomers.keys()) {
+            current.put(customer, allTripsOf(customer), version);
+        }
+        // ? 큰 배치 뒤에는 맵을 새로 만들어, 다음 쓰기마다 큰 배열을 비우지 않게 한다.
+        if (changedCustomers.size() > CHANGED_CUSTOMERS_TO_REUSE) {
+            changedCustomers = new IntObjectMap<>();
+        } else {
+            changedCustomers.clear();
+        }
+        current.commit(version);
+    }
+
+    // ? 고객의 여행 전체(콜드 영역 포함). 두 영역에 모두 있을 때만 합친 집합을 새로 만든다.
+    private synchronized Set<Trip> allTripsOf(int customer) {
+        var current = orEmpty(trips.get(customer));
+        var ended = endedTrips.get(customer);
+        if (ended == null) {
+            return current;
+        }
+        if (current.isEmpty()) {
+            return ended;
+        }
+        var result = new HashSet<Trip>(current.size() + ended.size());
+        result.addAll(current);
+        result.addAll(ended);
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static void removeFrom(IntObjectMap<Set<Trip>> tripsByCustomer, int customer, Trip trip) {
+        var customerTrips = tripsByCustomer.get(customer);
+        if (customerTrips == null || !customerTrips.contains(trip)) {
+            return;
+        }
+        if (customerTrips.size() == 1) {
+            tripsByCustomer.remove(customer);
+        } else {
+            var remaining = new HashSet<Trip>(customerTrips);
+            remaining.remove(trip);
+            tripsByCustomer.put(customer, Collections.unmodifiableSet(remaining));
+        }
+    }
+
+    private static Set<Trip> with(Set<Trip> customerTrips, Trip trip) {
+        var result = new HashSet<Trip>(customerTrips);
+        result.add(trip);
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static Set<Trip> orEmpty(Set<Trip> trips) {
+        return trips == null ? Collections.emptySet() : trips;
     }
 
 }
@@ -0,0 +1,104 @@
+package chapter7.java.v2;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+// ? 같은 JVM 안의 InMemoryTrips로 원격 샤드를 대신한다. 테스트에서 묶음 호출 횟수를 셀 수 있다.
+public class InProcessShard implements TripsShard {
+
+    private final String name;
+    private final InMemoryTrips trips;
+    private final LongAdder calls = new LongAdder();
+
+    public InProcessShard(String name, Clock clock) {
+        this(name, new InMemoryTrips(clock));
+    }
+
+    public InProcessShard(String name, InMemoryTrips trips) {
+        this.name = name;
+        this.trips = trips;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public InMemoryTrips getTrips() {
+        return trips;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public Map<String, Set<Trip>> tripsFor(Collection<String> customerIds) {
+        calls.increment();
+        var result = new HashMap<String, Set<Trip>>();
+        for (var customerId : customerIds) {
+            var customerTrips = trips.tripsFor(customerId);
+            if (!customerTrips.isEmpty()) {
+                result.put(customerId, customerTrips);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Set<Trip>> currentTripsFor(Collection<String> customerIds, Instant at) {
+        calls.increment();
+        var result = new HashMap<String, Set<Trip>>();
+        for (var customerId : customerIds) {
+            var current = trips.currentTripsFor(customerId, at);
+            if (!current.isEmpty()) {
+                result.put(customerId, current);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void addTrips(Map<String, ? extends Collection<Trip>> tripsByCustomer) {
+        calls.increment();
+        trips.addTrips(tripsByCustomer);
+    }
+
+    @Override
+    public List<String> customerIds() {
+        calls.increment();
+        var customers = trips.getCustomerIds();
+        var result = new ArrayList<String>();
+        for (int customer = 0; customer < customers.size(); customer++) {
+            if (trips.hasTrips(customer)) {
+                result.add(customers.idAt(customer));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Set<Trip>> removeCustomers(Collection<String> customerIds) {
+        calls.increment();
+        var removed = new HashMap<String, Set<Trip>>();
+        synchronized (trips) {
+            for (var customerId : customerIds) {
+                var customerTrips = trips.tripsFor(customerId);
+                for (var trip : customerTrips) {
+                    trips.removeTrip(trip.getId());
+                }
+                if (!customerTrips.isEmpty()) {
+                    removed.put(customerId, customerTrips);
+                }
+            }
+        }
+        return removed;
+    }
+}
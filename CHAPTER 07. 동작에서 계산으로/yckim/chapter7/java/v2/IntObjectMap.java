@@ -0,0 +1,149 @@
+package chapter7.java.v2;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// ? int 키를 박싱하지 않는 개방 주소법(선형 탐사) 맵. 키는 IdDictionary가 부여한 0 이상의 정수다.
+// ? 값이 null인 칸을 빈 칸으로 쓰므로 null 값은 넣을 수 없다. 스레드 안전하지 않다.
+public class IntObjectMap<V> {
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        var capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        var i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        var mask = keys.length - 1;
+        for (int i = slotOf(key, mask); ; i = (i + 1) & mask) {
+            if (values[i] == null) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size * 2 > keys.length) {
+                    resize(keys.length * 2);
+                }
+                return null;
+            }
+            if (keys[i] == key) {
+                var previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+        var existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        V value = mappingFunction.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    // ? 지운 칸 뒤에 이어진 항목을 앞으로 당겨 탐사 경로에 구멍이 생기지 않게 한다(묘비를 남기지 않는다).
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        var i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        var removed = (V) values[i];
+        var mask = keys.length - 1;
+        var hole = i;
+        for (int j = (hole + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            var home = slotOf(keys[j], mask);
+            // ? j의 항목이 hole 자리로 옮겨도 찾을 수 있는 경우(home이 (hole, j] 밖)에만 옮긴다.
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // ? 순회 중에 맵을 바꿀 수 있도록 키를 복사해서 돌려준다.
+    public int[] keys() {
+        var result = new int[size];
+        var n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        var mask = keys.length - 1;
+        for (int i = slotOf(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        var mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                var j = slotOf(oldKeys[i], mask);
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    // ? 촘촘한 키가 연속된 칸에 몰리지 않도록 피보나치 해싱으로 섞는다.
+    private static int slotOf(int key, int mask) {
+        var h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,34 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// ? 정수 키로 찾는 Tracking. 저장소와 같은 사전으로 바꾼 키를 받는다.
+public class KeyedTracking implements IKeyedTrackTrips {
+
+    private final KeyedTrips trips;
+
+    public KeyedTracking(KeyedTrips trips) {
+        this.trips = trips;
+    }
+
+    @Override
+    public IdDictionary getCustomerIds() {
+        return trips.getCustomerIds();
+    }
+
+    @Override
+    public Optional<Trip> currentTripFor(int customer, Instant at) {
+        if (!trips.mayHaveTripsFor(customer)) {
+            return Optional.empty();
+        }
+        var candidates = Tracking.bookedCandidates(trips.currentTripsFor(customer, at));
+        if (candidates.size() == 1) {
+            return Optional.of(candidates.get(0));
+        } else if (candidates.size() == 0) {
+            return Optional.empty();
+        } else {
+            throw new MultipleCurrentTripsException(trips.getCustomerIds().idAt(customer));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+import java.util.Set;
+
+// ? 고객을 getCustomerIds() 사전의 정수 키로 찾는 저장소. 문자열 ID는 가장자리(핸들러, 적재)에서 한 번만 키로 바꾼다.
+public interface KeyedTrips extends Trips {
+
+    IdDictionary getCustomerIds();
+
+    Set<Trip> tripsFor(int customer);
+
+    Set<Trip> currentTripsFor(int customer, Instant at);
+
+    // ? false면 이 고객의 여행은 확실히 없다. true는 있을 수도 있다는 뜻이다.
+    default boolean mayHaveTripsFor(int customer) {
+        return true;
+    }
+}
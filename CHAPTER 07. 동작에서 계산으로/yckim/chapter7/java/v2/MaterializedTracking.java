@@ -0,0 +1,223 @@
+package chapter7.java.v2;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// ? 고객마다 "지금" 진행 중인 예약 여행을 미리 계산해 둔다(없음, 하나, 충돌).
+// ? 답은 예약 여행이 시작하거나 끝나는 순간에만 바뀌므로 그 시각과 예약이 바뀔 때만 다시 계산한다.
+// ? 칸마다 답이 유효한 구간 [validFrom, validUntil)을 함께 두어, 구간 밖의 시각(과거 등)은 Tracking으로 계산한다.
+// ? 칸이 없는 고객은 예약 여행이 하나도 없으므로 어느 시각이든 답이 없다.
+// ? 칸은 저장소 사전의 고객 키 위치에 둔다. 바꾸는 쪽은 저장소 잠금 안에서만 바꾸고, 읽는 쪽은 잠금이 없다.
+public class MaterializedTracking implements IKeyedTrackTrips, TripsListener, AutoCloseable {
+
+    private final InMemoryTrips trips;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final IKeyedTrackTrips fallback;
+
+    private volatile AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(16);
+
+    // ? 다음에 다시 계산할 시각별 고객. 고객의 칸이 바뀌면 예전 시각이 남을 수 있지만 다시 계산해도 결과는 같다.
+    private final TreeMap<Instant, Set<Integer>> boundaries = new TreeMap<>();
+    private ScheduledFuture<?> nextRefresh;
+    private Instant nextRefreshAt = Instant.MAX;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public MaterializedTracking(InMemoryTrips trips, Clock clock, ScheduledExecutorService scheduler) {
+        this.trips = trips;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.fallback = new KeyedTracking(trips);
+        synchronized (trips) {
+            trips.addListener(this);
+            var customers = trips.getCustomerIds().size();
+            for (int customer = 0; customer < customers; customer++) {
+                refresh(customer);
+            }
+        }
+    }
+
+    @Override
+    public IdDictionary getCustomerIds() {
+        return trips.getCustomerIds();
+    }
+
+    @Override
+    public Optional<Trip> currentTripFor(int customer, Instant at) {
+        var current = slots;
+        var slot = customer >= 0 && customer < current.length() ? current.get(customer) : null;
+        if (slot == null) {
+            hits.increment();
+            return Optional.empty();
+        }
+        if (at.isBefore(slot.validFrom) || !at.isBefore(slot.validUntil)) {
+            fallbacks.increment();
+            return fallback.currentTripFor(customer, at);
+        }
+        hits.increment();
+        if (slot.conflict) {
+            throw new MultipleCurrentTripsException(getCustomerIds().idAt(customer));
+        }
+        return Optional.ofNullable(slot.trip);
+    }
+
+    // ? 저장소 잠금 안에서 불리므로 사전에는 두 고객이 모두 있다.
+    @Override
+    public void tripChanged(Trip before, Trip after) {
+        var customerIds = trips.getCustomerIds();
+        if (before != null) {
+            refresh(customerIds.find(before.getCustomerId()));
+        }
+        if (after != null && (before == null || !after.getCustomerId().equals(before.getCustomerId()))) {
+            refresh(customerIds.find(after.getCustomerId()));
+        }
+    }
+
+    // ? 지금까지 도래한 경계 시각의 고객을 다시 계산한다. 스케줄러가 부르지만 직접 불러도 된다.
+    public void refreshDue() {
+        var now = clock.instant();
+        var due = new HashSet<Integer>();
+        synchronized (boundaries) {
+            var passed = boundaries.headMap(now, true);
+            passed.values().forEach(due::addAll);
+            passed.clear();
+            nextRefresh = null;
+            nextRefreshAt = Instant.MAX;
+        }
+        for (var customer : due) {
+            refresh(customer);
+        }
+        synchronized (boundaries) {
+            if (!boundaries.isEmpty()) {
+                scheduleRefresh(boundaries.firstKey());
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    @Override
+    public void close() {
+        trips.removeListener(this);
+        synchronized (boundaries) {
+            if (nextRefresh != null) {
+                nextRefresh.cancel(false);
+            }
+            boundaries.clear();
+        }
+    }
+
+    // ? 저장소 잠금 안에서 계산하고 바꿔 넣어야 저장소 변경과 경계 갱신이 서로 덮어쓰지 않는다.
+    private void refresh(int customer) {
+        synchronized (trips) {
+            // ? 여행이 없는 고객을 필터에 물으면 필터의 거짓 양성 통계에 섞이므로 먼저 확인한다.
+            var customerTrips = trips.hasTrips(customer) ? trips.tripsFor(customer) : Set.<Trip>of();
+            var slot = compute(customerTrips, clock.instant());
+            var current = slots;
+            if (slot == null) {
+                if (customer < current.length()) {
+                    current.set(customer, null);
+                }
+                return;
+            }
+            if (customer >= current.length()) {
+                current = grow(customer);
+            }
+            current.set(customer, slot);
+            if (!slot.validUntil.equals(Instant.MAX)) {
+                addBoundary(slot.validUntil, customer);
+            }
+        }
+    }
+
+    // ? 새 배열을 다 채운 뒤 바꿔 끼우므로 읽는 쪽은 옛 배열이나 새 배열 중 하나를 온전히 본다.
+    private AtomicReferenceArray<Slot> grow(int customer) {
+        var current = slots;
+        var grown = new AtomicReferenceArray<Slot>(Math.max(customer + 1, current.length() * 2));
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        slots = grown;
+        return grown;
+    }
+
+    private static Slot compute(Set<Trip> customerTrips, Instant now) {
+        var validFrom = Instant.MIN;
+        var validUntil = Instant.MAX;
+        Trip current = null;
+        var active = 0;
+        for (var trip : customerTrips) {
+            if (trip.getBookingStatus() != Trip.BookingStatus.BOOKED) {
+                continue;
+            }
+            var start = trip.getPlannedStartTime().toInstant();
+            var end = trip.getPlannedEndTime().toInstant();
+            for (var boundary : new Instant[]{start, end}) {
+                if (boundary.isAfter(now)) {
+                    validUntil = boundary.isBefore(validUntil) ? boundary : validUntil;
+                } else {
+                    validFrom = boundary.isAfter(validFrom) ? boundary : validFrom;
+                }
+            }
+            if (trip.isPlannedToBeActiveAt(now)) {
+                current = trip;
+                active++;
+            }
+        }
+        if (validFrom.equals(Instant.MIN) && validUntil.equals(Instant.MAX)) {
+            return null;
+        }
+        return new Slot(active > 1 ? null : current, active > 1, validFrom, validUntil);
+    }
+
+    private void addBoundary(Instant at, int customer) {
+        synchronized (boundaries) {
+            boundaries.computeIfAbsent(at, key -> new HashSet<>()).add(customer);
+            if (at.isBefore(nextRefreshAt)) {
+                scheduleRefresh(at);
+            }
+        }
+    }
+
+    private void scheduleRefresh(Instant at) {
+        if (nextRefresh != null) {
+            nextRefresh.cancel(false);
+        }
+        var delay = Math.max(0, Duration.between(clock.instant(), at).toMillis());
+        // ? 밀리초 미만은 올림해 경계를 지난 뒤에 깨어나게 한다.
+        nextRefresh = scheduler.schedule(this::refreshDue, delay + 1, TimeUnit.MILLISECONDS);
+        nextRefreshAt = at;
+    }
+
+    private static final class Slot {
+        private final Trip trip;
+        private final boolean conflict;
+        private final Instant validFrom;
+        private final Instant validUntil;
+
+        Slot(Trip trip, boolean conflict, Instant validFrom, Instant validUntil) {
+            this.trip = trip;
+            this.conflict = conflict;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+    }
+}
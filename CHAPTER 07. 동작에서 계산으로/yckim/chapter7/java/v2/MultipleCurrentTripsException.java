@@ -0,0 +1,9 @@
+package chapter7.java.v2;
+
+public class MultipleCurrentTripsException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public MultipleCurrentTripsException(String customerId) {
+        super("Unexpectedly more than one current trip for " + customerId);
+    }
+}
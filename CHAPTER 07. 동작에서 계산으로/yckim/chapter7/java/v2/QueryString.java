@@ -0,0 +1,152 @@
+package chapter7.java.v2;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// ? 원본 URI 바이트를 복사하지 않고 그대로 들고 있다가, 요청된 파라미터만 그때 디코딩한다.
+// ? Map으로 쓰일 때(equals, entrySet 등)에만 전체를 디코딩한다.
+public class QueryString extends AbstractMap<String, List<String>> {
+
+    private final byte[] bytes;
+    private final int from;
+    private final int to;
+    private Map<String, List<String>> decoded;
+
+    public QueryString(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        this.from = from;
+        this.to = to;
+    }
+
+    // ? "/trips?customerId=1#top" 처럼 경로가 붙은 URI에서 '?'와 '#' 사이만 쿼리로 본다.
+    public static QueryString ofUri(byte[] uri) {
+        int start = uri.length;
+        int end = uri.length;
+        for (int i = 0; i < uri.length; i++) {
+            if (uri[i] == '?' && start == uri.length) {
+                start = i + 1;
+            } else if (uri[i] == '#') {
+                end = i;
+                break;
+            }
+        }
+        return new QueryString(uri, Math.min(start, end), end);
+    }
+
+    public Optional<String> first(String name) {
+        int pairStart = from;
+        while (pairStart < to) {
+            int pairEnd = indexOf((byte) '&', pairStart, to);
+            int equals = indexOf((byte) '=', pairStart, pairEnd);
+            if (pairEnd > pairStart && keyEquals(name, pairStart, equals)) {
+                return Optional.of(equals == pairEnd ? "" : decode(equals + 1, pairEnd));
+            }
+            pairStart = pairEnd + 1;
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        var name = (String) key;
+        List<String> values = null;
+        int pairStart = from;
+        while (pairStart < to) {
+            int pairEnd = indexOf((byte) '&', pairStart, to);
+            int equals = indexOf((byte) '=', pairStart, pairEnd);
+            if (pairEnd > pairStart && keyEquals(name, pairStart, equals)) {
+                if (values == null) {
+                    values = new ArrayList<>(1);
+                }
+                values.add(equals == pairEnd ? "" : decode(equals + 1, pairEnd));
+            }
+            pairStart = pairEnd + 1;
+        }
+        return values;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && first((String) key).isPresent();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        if (decoded == null) {
+            var result = new LinkedHashMap<String, List<String>>();
+            int pairStart = from;
+            while (pairStart < to) {
+                int pairEnd = indexOf((byte) '&', pairStart, to);
+                int equals = indexOf((byte) '=', pairStart, pairEnd);
+                if (pairEnd > pairStart) {
+                    result.computeIfAbsent(decode(pairStart, equals), k -> new ArrayList<>(1))
+                            .add(equals == pairEnd ? "" : decode(equals + 1, pairEnd));
+                }
+                pairStart = pairEnd + 1;
+            }
+            decoded = result;
+        }
+        return decoded.entrySet();
+    }
+
+    // ? 인코딩되지 않은 ASCII 키는 바이트를 바로 비교해 문자열을 만들지 않는다.
+    // ? "=x"처럼 키가 빈 쌍은 entrySet과 마찬가지로 "" 키로 본다.
+    private boolean keyEquals(String name, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == '%' || bytes[i] == '+' || bytes[i] < 0) {
+                return decode(start, end).equals(name);
+            }
+        }
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (bytes[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int start, int end) {
+        var raw = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == '%' || bytes[i] == '+') {
+                try {
+                    return URLDecoder.decode(raw, StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    throw new MalformedQueryException(raw, e);
+                }
+            }
+        }
+        return raw;
+    }
+
+    private int indexOf(byte b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // ? "%zz"처럼 잘못된 % 이스케이프. 요청이 잘못된 것이므로 서버 오류와 구분한다.
+    public static class MalformedQueryException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        public MalformedQueryException(String value, Throwable cause) {
+            super("malformed query component: " + value, cause);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package chapter7.java.v2;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// ? 변경 피드를 적용해 원본 저장소를 따라가는 읽기 전용 복제본.
+// ? 같은 프로세스에서는 TripChangeFeed.subscribe로, 다른 프로세스에서는 TripFeedWriter가 쓴 줄을 readFrom으로 받는다.
+// ? 다시 연결할 때는 getEpoch와 getAppliedSequence를 넘겨 이어 받는다.
+public class ReplicaTrips implements Trips, TripChangeSubscriber {
+
+    private final Clock clock;
+    private volatile InMemoryTrips local;
+    private volatile String epoch;
+    private volatile long appliedSequence = -1;
+
+    // ? 원본에 커밋된 뒤 복제본에 적용되기까지 걸린 시간. 프로세스가 다르면 두 시계의 차이도 포함된다.
+    private final LatencyHistogram lag = new LatencyHistogram();
+
+    public ReplicaTrips(Clock clock) {
+        this.clock = clock;
+        this.local = new InMemoryTrips(clock);
+    }
+
+    @Override
+    public Set<Trip> tripsFor(String customerId) {
+        return local.tripsFor(customerId);
+    }
+
+    @Override
+    public Set<Trip> currentTripsFor(String customerId, Instant at) {
+        return local.currentTripsFor(customerId, at);
+    }
+
+    @Override
+    public boolean mayHaveTripsFor(String customerId) {
+        return local.mayHaveTripsFor(customerId);
+    }
+
+    @Override
+    public void onSnapshot(TripsSnapshot snapshot, String epoch, long sequence) {
+        reset(snapshot.trips(), epoch, sequence);
+    }
+
+    // ? 새 저장소를 다 채운 뒤 바꿔 끼우므로 읽는 쪽은 반쯤 채워진 상태를 보지 않는다.
+    public void reset(Stream<Trip> trips, String epoch, long sequence) {
+        var fresh = new InMemoryTrips(clock);
+        trips.forEach(fresh::addTrip);
+        synchronized (this) {
+            local = fresh;
+            this.epoch = epoch;
+            appliedSequence = sequence;
+            notifyAll();
+        }
+    }
+
+    // ? 같은 version(원본의 쓰기 하나)의 변경은 저장소 잠금 안에서 한꺼번에 적용한다.
+    // ? 복제본을 읽는 쪽은 모두 그 잠금을 거치므로 배치의 절반만 보지 않는다.
+    @Override
+    public void onChanges(List<TripChange> changes) {
+        // ? 다른 epoch의 번호는 지금 상태와 비교할 수 없으므로 스냅숏부터 다시 받아야 한다.
+        for (var change : changes) {
+            if (!change.getEpoch().equals(epoch)) {
+                throw new IllegalStateException(
+                        "change " + change + " is from feed " + change.getEpoch() + " but replica follows " + epoch
+                );
+            }
+        }
+        var store = local;
+        var applied = appliedSequence;
+        for (int start = 0; start < changes.size(); ) {
+            var version = changes.get(start).getVersion();
+            var end = start;
+            while (end < changes.size() && changes.get(end).getVersion() == version) {
+                end++;
+            }
+            var appliedBefore = applied;
+            synchronized (store) {
+                for (var change : changes.subList(start, end)) {
+                    // ? 다시 연결하면서 같은 변경을 또 받을 수 있으므로 이미 적용한 번호는 건너뛴다.
+                    if (change.getSequence() <= applied) {
+                        continue;
+                    }
+                    if (change.getType() == TripChange.Type.REMOVED) {
+                        store.removeTrip(change.getTrip().getId());
+                    } else {
+                        store.addTrip(change.getTrip());
+                    }
+                    applied = change.getSequence();
+                }
+            }
+            var now = clock.instant();
+            for (var change : changes.subList(start, end)) {
+                if (change.getSequence() > appliedBefore) {
+                    lag.record(Math.max(0, Duration.between(change.getCommittedAt(), now).toNanos()));
+                }
+            }
+            start = end;
+        }
+        synchronized (this) {
+            appliedSequence = applied;
+            notifyAll();
+        }
+    }
+
+    // ? 다른 프로세스의 피드를 스트림이 끝날 때까지 적용한다. CHANGE 줄은 COMMIT 줄을 받을 때 커밋 단위로 적용한다.
+    public void readFrom(BufferedReader reader) throws IOException {
+        var commit = new ArrayList<TripChange>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!commit.isEmpty() && !line.startsWith(TripFeedWriter.CHANGE + "\t") && !line.startsWith(TripFeedWriter.COMMIT + "\t")) {
+                throw new IOException("commit " + commit.get(0).getVersion() + " was not closed before: " + line);
+            }
+            if (line.startsWith(TripFeedWriter.SNAPSHOT + "\t")) {
+                var header = line.split("\t");
+                if (header.length != 3) {
+                    throw new IOException("unexpected snapshot header: " + line);
+                }
+                var epoch = header[1];
+                var sequence = Long.parseLong(header[2]);
+                var trips = new ArrayList<Trip>();
+                while (true) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        throw new EOFException("feed ended inside a snapshot");
+                    }
+                    if (line.equals(TripFeedWriter.END)) {
+                        break;
+                    }
+                    if (!line.startsWith(TripFeedWriter.TRIP + "\t")) {
+                        throw new IOException("expected a " + TripFeedWriter.TRIP + " line inside a snapshot but was: " + line);
+                    }
+                    trips.add(TripFormat.fromJson(line.substring(TripFeedWriter.TRIP.length() + 1)));
+                }
+                reset(trips.stream(), epoch, sequence);
+            } else if (line.startsWith(TripFeedWriter.CHANGE + "\t")) {
+                var change = TripChange.fromLine(line.substring(TripFeedWriter.CHANGE.length() + 1));
+                if (!change.getEpoch().equals(epoch)) {
+                    throw new IOException("feed was reset without a snapshot: " + change);
+                }
+                if (!commit.isEmpty() && commit.get(0).getVersion() != change.getVersion()) {
+                    throw new IOException("commit " + commit.get(0).getVersion() + " was not closed before: " + change);
+                }
+                commit.add(change);
+            } else if (line.startsWith(TripFeedWriter.COMMIT + "\t")) {
+                var version = Long.parseLong(line.substring(TripFeedWriter.COMMIT.length() + 1));
+                if (commit.isEmpty() || commit.get(0).getVersion() != version) {
+                    throw new IOException("unexpected commit: " + line);
+                }
+                onChanges(List.copyOf(commit));
+                commit.clear();
+            } else {
+                throw new IOException("unexpected feed line: " + line);
+            }
+        }
+        if (!commit.isEmpty()) {
+            throw new EOFException("feed ended inside commit " + commit.get(0).getVersion());
+        }
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    // ? 쓴 직후에 읽어야 하는 쪽은 원본의 번호까지 적용되기를 기다린다.
+    public synchronized boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        while (appliedSequence < sequence) {
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+        return true;
+    }
+
+    public LatencyHistogram.Snapshot lag() {
+        return lag.snapshot();
+    }
+}
@@ -4,6 +4,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 public class Request {
 
@@ -23,6 +24,10 @@ public class Request {
         this.body = body;
     }
 
+    public static Request fromUri(byte[] uri, String body) {
+        return new Request(QueryString.ofUri(uri), body);
+    }
+
     public String getBody() {
         return body;
     }
@@ -48,4 +53,20 @@ public class Request {
     public List<String> getQueryParam(String name) {
         return queryParams.getOrDefault(name, Collections.emptyList());
     }
+
+    // ? 값이 없거나 "%zz"처럼 잘못 인코딩되어 있으면 비어 있다. 핸들러는 둘 다 400으로 응답하면 된다.
+    public Optional<String> getValidQueryParam(String name) {
+        try {
+            return getFirstQueryParam(name);
+        } catch (QueryString.MalformedQueryException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Optional<String> getFirstQueryParam(String name) {
+        if (queryParams instanceof QueryString) {
+            return ((QueryString) queryParams).first(name);
+        }
+        return getQueryParam(name).stream().findFirst();
+    }
 }
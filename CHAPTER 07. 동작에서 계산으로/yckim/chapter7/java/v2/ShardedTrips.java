@@ -0,0 +1,220 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+// ? 고객 ID의 일관된 해시로 샤드를 골라 여행을 나눠 저장한다. 샤드를 늘리면 담을 수 있는 고객 수도 늘어난다.
+// ? 여러 고객을 한꺼번에 찾거나 넣을 때는 샤드별로 묶어 한 번씩만 부르고, 샤드들은 병렬로 부른다.
+// ? 샤드를 더하거나 뺄 때는 주인이 바뀌는 고객만 옮기며, 옮기는 동안에는 읽기와 쓰기를 잠시 막는다.
+// ? 옮길 때는 대상 샤드에 먼저 복사하고, 모두 성공한 뒤에만 원래 샤드에서 지운다. 복사가 실패하면 샤드 구성을 되돌린다.
+// ? InMemoryTrips와 달리 여행 id의 고객은 바뀌지 않는다고 가정한다. 아래 addTrips 참고.
+public class ShardedTrips implements Trips {
+
+    private final ConsistentHashRing<TripsShard> ring;
+    private final Executor executor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ShardedTrips(List<? extends TripsShard> shards, int virtualNodes, Executor executor) {
+        this.ring = new ConsistentHashRing<>(virtualNodes);
+        this.executor = executor;
+        for (var shard : shards) {
+            ring.add(shard.getName(), shard);
+        }
+    }
+
+    @Override
+    public Set<Trip> tripsFor(String customerId) {
+        return tripsFor(List.of(customerId)).getOrDefault(customerId, Collections.emptySet());
+    }
+
+    @Override
+    public Set<Trip> currentTripsFor(String customerId, Instant at) {
+        return currentTripsFor(List.of(customerId), at).getOrDefault(customerId, Collections.emptySet());
+    }
+
+    public Map<String, Set<Trip>> tripsFor(Collection<String> customerIds) {
+        return fanOut(customerIds, (shard, ids) -> shard.tripsFor(ids));
+    }
+
+    public Map<String, Set<Trip>> currentTripsFor(Collection<String> customerIds, Instant at) {
+        return fanOut(customerIds, (shard, ids) -> shard.currentTripsFor(ids, at));
+    }
+
+    public void addTrip(Trip trip) {
+        addTrips(Map.of(trip.getCustomerId(), List.of(trip)));
+    }
+
+    // ? 샤드는 새 여행의 고객으로만 고르므로, 이미 있는 여행 id를 다른 고객으로 다시 넣으면 옛 고객 샤드의 여행이 지워지지 않는다.
+    // ? 그러면 두 고객 모두에게 그 여행이 보인다. 여행의 고객을 바꾸는 것은 지원하지 않는다.
+    public void addTrips(Map<String, ? extends Collection<Trip>> tripsByCustomer) {
+        lock.readLock().lock();
+        try {
+            var byShard = new HashMap<TripsShard, Map<String, Collection<Trip>>>();
+            tripsByCustomer.forEach((customerId, trips) ->
+                    byShard.computeIfAbsent(ring.nodeFor(customerId), shard -> new HashMap<>()).put(customerId, trips)
+            );
+            inParallel(byShard, (shard, batch) -> {
+                shard.addTrips(batch);
+                return null;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ? 새 샤드가 맡게 될 고객을 기존 샤드들에서 옮겨 온다.
+    public void addShard(TripsShard shard) {
+        lock.writeLock().lock();
+        try {
+            var existing = ring.nodes();
+            ring.add(shard.getName(), shard);
+            var copied = new HashMap<TripsShard, List<String>>();
+            try {
+                for (var source : existing) {
+                    copied.put(source, copy(source, customerId -> ring.nodeFor(customerId) != source));
+                }
+            } catch (RuntimeException e) {
+                ring.remove(shard.getName());
+                var all = new ArrayList<String>();
+                copied.values().forEach(all::addAll);
+                discard(Map.of(shard, all), e);
+                throw e;
+            }
+            copied.forEach((source, customerIds) -> {
+                if (!customerIds.isEmpty()) {
+                    source.removeCustomers(customerIds);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ? 빠지는 샤드의 고객을 남은 샤드들로 나눠 준다.
+    public void removeShard(String name) {
+        lock.writeLock().lock();
+        try {
+            var removed = ring.remove(name);
+            if (removed == null) {
+                return;
+            }
+            if (ring.size() == 0) {
+                ring.add(name, removed);
+                throw new IllegalStateException("cannot remove the last shard");
+            }
+            List<String> moved;
+            try {
+                moved = copy(removed, customerId -> true);
+            } catch (RuntimeException e) {
+                ring.add(name, removed);
+                throw e;
+            }
+            if (!moved.isEmpty()) {
+                removed.removeCustomers(moved);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<TripsShard> shards() {
+        lock.readLock().lock();
+        try {
+            return ring.nodes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ? 옮길 고객의 여행을 지금 링에서 맡는 샤드에 복사하고 복사한 고객을 돌려준다. 원래 샤드에서는 지우지 않는다.
+    // ? 일부만 복사된 채 실패하면 대상에 들어간 고객을 지우고 다시 던진다.
+    private List<String> copy(TripsShard source, Predicate<String> moving) {
+        var leaving = new ArrayList<String>();
+        for (var customerId : source.customerIds()) {
+            if (moving.test(customerId)) {
+                leaving.add(customerId);
+            }
+        }
+        if (leaving.isEmpty()) {
+            return leaving;
+        }
+        var byShard = new HashMap<TripsShard, Map<String, Collection<Trip>>>();
+        source.tripsFor(leaving).forEach((customerId, trips) ->
+                byShard.computeIfAbsent(ring.nodeFor(customerId), shard -> new HashMap<>()).put(customerId, trips)
+        );
+        try {
+            inParallel(byShard, (shard, batch) -> {
+                shard.addTrips(batch);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            var copied = new HashMap<TripsShard, List<String>>();
+            byShard.forEach((shard, batch) -> copied.put(shard, new ArrayList<>(batch.keySet())));
+            discard(copied, e);
+            throw e;
+        }
+        return leaving;
+    }
+
+    // ? 되돌리기가 실패해도 원래 실패를 가리지 않도록 덧붙이기만 한다.
+    private static void discard(Map<TripsShard, List<String>> customersByShard, RuntimeException failure) {
+        customersByShard.forEach((shard, customerIds) -> {
+            if (customerIds.isEmpty()) {
+                return;
+            }
+            try {
+                shard.removeCustomers(customerIds);
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        });
+    }
+
+    private Map<String, Set<Trip>> fanOut(
+            Collection<String> customerIds,
+            BiFunction<TripsShard, List<String>, Map<String, Set<Trip>>> call
+    ) {
+        lock.readLock().lock();
+        try {
+            var byShard = new HashMap<TripsShard, List<String>>();
+            for (var customerId : customerIds) {
+                byShard.computeIfAbsent(ring.nodeFor(customerId), shard -> new ArrayList<>()).add(customerId);
+            }
+            var result = new HashMap<String, Set<Trip>>();
+            for (var shardResult : inParallel(byShard, call)) {
+                result.putAll(shardResult);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ? 샤드가 하나면 호출 스레드에서 바로 부른다.
+    private <A, R> List<R> inParallel(Map<TripsShard, A> byShard, BiFunction<TripsShard, A, R> call) {
+        if (byShard.size() == 1) {
+            var entry = byShard.entrySet().iterator().next();
+            return Collections.singletonList(call.apply(entry.getKey(), entry.getValue()));
+        }
+        var futures = new ArrayList<CompletableFuture<R>>(byShard.size());
+        byShard.forEach((shard, argument) ->
+                futures.add(CompletableFuture.supplyAsync(() -> call.apply(shard, argument), executor))
+        );
+        var results = new ArrayList<R>(futures.size());
+        for (var future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+}
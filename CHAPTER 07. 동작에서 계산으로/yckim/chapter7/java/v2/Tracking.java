@@ -1,8 +1,11 @@
 package chapter7.java.v2;
 
+import chapter1.java.sum.Seq;
+
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class Tracking implements ITrackTrips {
 
@@ -14,15 +17,24 @@ public class Tracking implements ITrackTrips {
 
     @Override
     public Optional<Trip> currentTripFor(String customerId, Instant at) {
-        var candidates = trips.currentTripsFor(customerId, at).stream()
-                .filter(trip -> trip.getBookingStatus() == Trip.BookingStatus.BOOKED)
-                .collect(Collectors.toList());
+        if (!trips.mayHaveTripsFor(customerId)) {
+            return Optional.empty();
+        }
+        var candidates = bookedCandidates(trips.currentTripsFor(customerId, at));
         if (candidates.size() == 1) {
             return Optional.of(candidates.get(0));
         } else if (candidates.size() == 0) {
             return Optional.empty();
         } else {
-            throw new IllegalStateException("Unexpectedly more than one current trip for " + customerId);
+            throw new MultipleCurrentTripsException(customerId);
         }
     }
+
+    // ? 두 개만 찾으면 충돌이므로 그 뒤는 보지 않는다.
+    static List<Trip> bookedCandidates(Set<Trip> currentTrips) {
+        return Seq.of(currentTrips)
+                .filter(trip -> trip.getBookingStatus() == Trip.BookingStatus.BOOKED)
+                .take(2)
+                .toList();
+    }
 }
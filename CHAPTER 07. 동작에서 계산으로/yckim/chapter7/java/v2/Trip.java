@@ -2,6 +2,7 @@ package chapter7.java.v2;
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.Objects;
 
 public class Trip {
     private final String id;
@@ -21,14 +22,26 @@ public class Trip {
         this.bookingStatus = bookingStatus;
     }
 
+    public String getId() {
+        return id;
+    }
+
     public String getCustomerId() {
         return customerId;
     }
 
+    public String getName() {
+        return name;
+    }
+
     public ZonedDateTime getPlannedStartTime() {
         return plannedStartTime;
     }
 
+    public ZonedDateTime getPlannedEndTime() {
+        return plannedEndTime;
+    }
+
     public BookingStatus getBookingStatus() {
         return bookingStatus;
     }
@@ -38,7 +51,25 @@ public class Trip {
                 plannedEndTime.toInstant().isAfter(time);
     }
 
-    enum BookingStatus {
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Trip trip = (Trip) o;
+        return Objects.equals(id, trip.id) &&
+                Objects.equals(customerId, trip.customerId) &&
+                Objects.equals(name, trip.name) &&
+                Objects.equals(plannedStartTime, trip.plannedStartTime) &&
+                Objects.equals(plannedEndTime, trip.plannedEndTime) &&
+                bookingStatus == trip.bookingStatus;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, customerId, name, plannedStartTime, plannedEndTime, bookingStatus);
+    }
+
+    public enum BookingStatus {
         BOOKED, NOT_BOOKED
     }
 }
@@ -0,0 +1,80 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+
+// ? 변경 피드의 항목 하나. sequence는 저장소에 적용된 순서대로 1부터 증가한다.
+// ? version은 변경이 속한 저장소 쓰기의 번호다. 배치 하나의 변경은 모두 같은 version이고 번호도 이어져 있다.
+// ? 피드가 다시 시작되면 sequence도 1부터 다시 세므로, 어느 피드의 번호인지 epoch로 구분한다.
+// ? REMOVED의 trip은 지워진 여행이다.
+public class TripChange {
+
+    private final String epoch;
+    private final long sequence;
+    private final long version;
+    private final Type type;
+    private final Trip trip;
+    private final Instant committedAt;
+
+    public TripChange(String epoch, long sequence, long version, Type type, Trip trip, Instant committedAt) {
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.version = version;
+        this.type = type;
+        this.trip = trip;
+        this.committedAt = committedAt;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Trip getTrip() {
+        return trip;
+    }
+
+    public Instant getCommittedAt() {
+        return committedAt;
+    }
+
+    // ? 프로세스 사이로 보낼 때 쓰는 한 줄 형식: epoch<TAB>sequence<TAB>version<TAB>committedAt<TAB>type<TAB>여행 JSON
+    // ? TripFormat.toJson은 제어 문자를 이스케이프하므로 JSON 안에 탭이 나오지 않는다.
+    public String toLine() {
+        return epoch + "\t" + sequence + "\t" + version + "\t" + committedAt + "\t" + type + "\t" + TripFormat.toJson(trip);
+    }
+
+    public static TripChange fromLine(String line) {
+        var fields = line.split("\t", 6);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("expected 6 fields but was " + fields.length + ": " + line);
+        }
+        return new TripChange(
+                fields[0],
+                Long.parseLong(fields[1]),
+                Long.parseLong(fields[2]),
+                Type.valueOf(fields[4]),
+                TripFormat.fromJson(fields[5]),
+                Instant.parse(fields[3])
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "TripChange[" + epoch + "/" + sequence + "@" + version + " " + type + " " + trip.getId() + "]";
+    }
+
+    public enum Type {
+        ADDED, UPDATED, REMOVED
+    }
+}
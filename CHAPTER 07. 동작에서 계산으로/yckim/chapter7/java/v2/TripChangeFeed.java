@@ -0,0 +1,214 @@
+package chapter7.java.v2;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// ? 저장소에 적용된 변경을 순서대로 번호를 붙여 최근 retention개만 보관한다.
+// ? 구독자는 각자의 스레드에서 자기 속도로 따라오므로 느린 구독자가 쓰기를 막지 않는다.
+// ? 보관 범위보다 뒤처진 구독자는 스냅숏부터 다시 받는다. 그래서 복제 지연은 보관 범위만큼으로 제한된다.
+// ? 변경은 저장소 쓰기가 커밋될 때 한꺼번에 번호를 받고, 구독자에게도 커밋 단위로만 나뉘어 전달된다. 그래서 배치의 절반만 적용되는 일이 없다.
+// ? 피드마다 epoch가 달라서, 원본이 다시 시작되어 번호가 1부터 다시 세어져도 구독자가 알아챌 수 있다.
+public class TripChangeFeed implements TripsListener, AutoCloseable {
+
+    private static final int MAX_BATCH = 1024;
+
+    private final InMemoryTrips trips;
+    private final Clock clock;
+    private final String epoch = UUID.randomUUID().toString();
+    private final TripChange[] retained;
+    private long lastSequence;
+    // ? 저장소 잠금 안에서만 쓰인다. 아직 커밋되지 않은 쓰기의 변경
+    private final List<PendingChange> pending = new ArrayList<>();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private TripChangeFeed(InMemoryTrips trips, int retention, Clock clock) {
+        if (retention < 1) {
+            throw new IllegalArgumentException("retention must be positive");
+        }
+        this.trips = trips;
+        this.clock = clock;
+        this.retained = new TripChange[retention];
+    }
+
+    public static TripChangeFeed attach(InMemoryTrips trips, int retention, Clock clock) {
+        var feed = new TripChangeFeed(trips, retention, clock);
+        // ? 진행 중인 쓰기의 중간부터 듣기 시작하지 않도록 저장소 잠금 안에서 붙인다.
+        synchronized (trips) {
+            trips.addListener(feed);
+        }
+        return feed;
+    }
+
+    @Override
+    public void tripChanged(Trip before, Trip after) {
+        var type = before == null ? TripChange.Type.ADDED
+                : after == null ? TripChange.Type.REMOVED
+                : TripChange.Type.UPDATED;
+        pending.add(new PendingChange(type, after == null ? before : after));
+    }
+
+    // ? 저장소 잠금 안에서 불리므로 번호는 저장소에 적용된 순서와 같다.
+    @Override
+    public void committed(long version) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        var committedAt = clock.instant();
+        synchronized (this) {
+            for (var change : pending) {
+                var sequence = ++lastSequence;
+                retained[(int) (sequence % retained.length)] = new TripChange(
+                        epoch,
+                        sequence,
+                        version,
+                        change.type,
+                        change.trip,
+                        committedAt
+                );
+            }
+            notifyAll();
+        }
+        pending.clear();
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public Subscription subscribe(TripChangeSubscriber subscriber) {
+        return start(new Subscription(subscriber, -1));
+    }
+
+    // ? 다시 연결하는 구독자는 마지막으로 받은 epoch와 번호부터 이어 받는다.
+    // ? epoch가 다르거나, 이미 버려졌거나, 이 피드가 아직 만들지 않은 번호이면 스냅숏부터 보낸다.
+    public Subscription subscribe(String epoch, long afterSequence, TripChangeSubscriber subscriber) {
+        return start(new Subscription(subscriber, this.epoch.equals(epoch) ? afterSequence : -1));
+    }
+
+    @Override
+    public void close() {
+        trips.removeListener(this);
+        for (var subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    private Subscription start(Subscription subscription) {
+        subscriptions.add(subscription);
+        var thread = new Thread(subscription, "trip-change-feed");
+        thread.setDaemon(true);
+        thread.start();
+        return subscription;
+    }
+
+    // ? 보관 범위보다 뒤처졌거나 아직 없는 번호이면 null, 새 변경이 없으면 빈 목록
+    // ? MAX_BATCH를 넘더라도 마지막 커밋은 끝까지 담는다. sequence는 늘 커밋의 경계다.
+    private synchronized List<TripChange> changesAfter(long sequence, long waitMillis) throws InterruptedException {
+        if (sequence == lastSequence) {
+            wait(waitMillis);
+        }
+        if (sequence < 0 || sequence > lastSequence || sequence < lastSequence - retained.length) {
+            return null;
+        }
+        var count = (int) Math.min(MAX_BATCH, lastSequence - sequence);
+        if (count == 0) {
+            return List.of();
+        }
+        var changes = new ArrayList<TripChange>(count);
+        for (long s = sequence + 1; s <= sequence + count; s++) {
+            changes.add(retained[(int) (s % retained.length)]);
+        }
+        var version = changes.get(count - 1).getVersion();
+        for (long s = sequence + count + 1; s <= lastSequence; s++) {
+            var change = retained[(int) (s % retained.length)];
+            if (change.getVersion() != version) {
+                break;
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    // ? 저장소 잠금 안에서는 진행 중인 쓰기가 없으므로 스냅숏과 마지막 번호가 정확히 맞는다.
+    private long sendSnapshot(TripChangeSubscriber subscriber) {
+        TripsSnapshot snapshot;
+        long sequence;
+        synchronized (trips) {
+            snapshot = trips.snapshot();
+            sequence = getLastSequence();
+        }
+        try (snapshot) {
+            subscriber.onSnapshot(snapshot, epoch, sequence);
+        }
+        return sequence;
+    }
+
+    private static class PendingChange {
+        private final TripChange.Type type;
+        private final Trip trip;
+
+        PendingChange(TripChange.Type type, Trip trip) {
+            this.type = type;
+            this.trip = trip;
+        }
+    }
+
+    public class Subscription implements Runnable, AutoCloseable {
+        private final TripChangeSubscriber subscriber;
+        private volatile long delivered;
+        private volatile boolean closed;
+        private volatile RuntimeException failure;
+
+        private Subscription(TripChangeSubscriber subscriber, long afterSequence) {
+            this.subscriber = subscriber;
+            this.delivered = afterSequence;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    var changes = changesAfter(delivered, 100);
+                    if (changes == null) {
+                        delivered = sendSnapshot(subscriber);
+                    } else if (!changes.isEmpty()) {
+                        subscriber.onChanges(changes);
+                        delivered = changes.get(changes.size() - 1).getSequence();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // ? 구독자가 실패하면 구독을 멈춘다. 다시 구독하면 getEpoch, getDeliveredSequence부터 이어 받는다.
+                failure = e;
+            } finally {
+                subscriptions.remove(this);
+            }
+        }
+
+        public long getDeliveredSequence() {
+            return delivered;
+        }
+
+        public boolean isActive() {
+            return !closed && failure == null;
+        }
+
+        public RuntimeException getFailure() {
+            return failure;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package chapter7.java.v2;
+
+import java.util.List;
+
+// ? 구독마다 전용 스레드에서 순서대로 호출된다.
+public interface TripChangeSubscriber {
+
+    // ? 처음 구독할 때, 피드가 보관하는 범위보다 뒤처졌을 때, 다른 epoch(다시 시작된 피드)에서 이어 받으려 할 때 전체 상태를 받는다.
+    // ? 이어지는 onChanges는 같은 epoch의 sequence 다음 변경부터다. snapshot은 호출이 끝나면 닫힌다.
+    void onSnapshot(TripsSnapshot snapshot, String epoch, long sequence);
+
+    // ? 빠짐없이 이어진 변경들. 커밋 중간에서 끊기지 않으므로 같은 version의 변경은 한 번에 온다.
+    void onChanges(List<TripChange> changes);
+}
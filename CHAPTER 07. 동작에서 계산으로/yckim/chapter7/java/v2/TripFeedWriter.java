@@ -0,0 +1,55 @@
+package chapter7.java.v2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+// ? 변경 피드를 다른 프로세스의 ReplicaTrips.readFrom으로 보내는 줄 단위 형식으로 쓴다(소켓 등).
+// ?   SNAPSHOT<TAB>epoch<TAB>sequence / TRIP<TAB>여행 JSON ... / END
+// ?   CHANGE<TAB>TripChange.toLine() ... / COMMIT<TAB>version
+// ? 한 커밋의 CHANGE 줄 뒤에는 COMMIT 줄이 오고, 받는 쪽은 COMMIT을 받아야 그 커밋을 적용한다.
+public class TripFeedWriter implements TripChangeSubscriber {
+
+    static final String SNAPSHOT = "SNAPSHOT";
+    static final String TRIP = "TRIP";
+    static final String END = "END";
+    static final String CHANGE = "CHANGE";
+    static final String COMMIT = "COMMIT";
+
+    private final Writer writer;
+
+    public TripFeedWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void onSnapshot(TripsSnapshot snapshot, String epoch, long sequence) {
+        try {
+            writer.write(SNAPSHOT + "\t" + epoch + "\t" + sequence + "\n");
+            for (var iterator = snapshot.trips().iterator(); iterator.hasNext(); ) {
+                writer.write(TRIP + "\t" + TripFormat.toJson(iterator.next()) + "\n");
+            }
+            writer.write(END + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onChanges(List<TripChange> changes) {
+        try {
+            for (int i = 0; i < changes.size(); i++) {
+                var change = changes.get(i);
+                writer.write(CHANGE + "\t" + change.toLine() + "\n");
+                if (i == changes.size() - 1 || changes.get(i + 1).getVersion() != change.getVersion()) {
+                    writer.write(COMMIT + "\t" + change.getVersion() + "\n");
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
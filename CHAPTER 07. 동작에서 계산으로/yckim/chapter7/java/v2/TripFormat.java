@@ -0,0 +1,142 @@
+package chapter7.java.v2;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+
+// ? 여행을 파일로 주고받을 때 쓰는 한 줄 형식
+// ?   CSV    : id,customerId,name,plannedStartTime,plannedEndTime,bookingStatus
+// ?   NDJSON : {"id":..,"customerId":..,"name":..,"plannedStartTime":..,"plannedEndTime":..,"bookingStatus":..}
+// ? 시각은 ISO-8601 ZonedDateTime 형식이다. CSV 필드에 쉼표나 따옴표가 있으면 따옴표로 감싸고 따옴표는 두 번 쓴다(RFC 4180).
+// ? 한 줄에 여행 하나이므로 줄바꿈이 들어간 필드는 CSV로 쓸 수 없다.
+// ? 읽을 때 형식이 맞지 않으면 IllegalArgumentException(시각은 DateTimeParseException)을 던진다.
+public class TripFormat {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+    private TripFormat() {}
+
+    public static String toCsv(Trip trip) {
+        return csvField(trip.getId()) + ',' +
+                csvField(trip.getCustomerId()) + ',' +
+                csvField(trip.getName()) + ',' +
+                DateTimeFormatter.ISO_ZONED_DATE_TIME.format(trip.getPlannedStartTime()) + ',' +
+                DateTimeFormatter.ISO_ZONED_DATE_TIME.format(trip.getPlannedEndTime()) + ',' +
+                trip.getBookingStatus();
+    }
+
+    // ? Jackson은 제어 문자를 이스케이프하므로 결과는 항상 한 줄이다.
+    public static String toJson(Trip trip) {
+        var node = objectMapper.createObjectNode()
+                .put("id", trip.getId())
+                .put("customerId", trip.getCustomerId())
+                .put("name", trip.getName())
+                .put("plannedStartTime", DateTimeFormatter.ISO_ZONED_DATE_TIME.format(trip.getPlannedStartTime()))
+                .put("plannedEndTime", DateTimeFormatter.ISO_ZONED_DATE_TIME.format(trip.getPlannedEndTime()))
+                .put("bookingStatus", trip.getBookingStatus().name());
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Trip fromCsv(String line) {
+        var fields = line.indexOf('"') < 0 ? line.split(",", -1) : splitQuoted(line);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("expected 6 fields but was " + fields.length + ": " + line);
+        }
+        return new Trip(
+                fields[0],
+                fields[1],
+                fields[2],
+                ZonedDateTime.parse(fields[3], DateTimeFormatter.ISO_ZONED_DATE_TIME),
+                ZonedDateTime.parse(fields[4], DateTimeFormatter.ISO_ZONED_DATE_TIME),
+                Trip.BookingStatus.valueOf(fields[5])
+        );
+    }
+
+    // ? 값은 모두 문자열이고 모르는 키는 무시한다.
+    public static Trip fromJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid JSON: " + line, e);
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object: " + line);
+        }
+        return new Trip(
+                required(node, "id"),
+                required(node, "customerId"),
+                required(node, "name"),
+                ZonedDateTime.parse(required(node, "plannedStartTime"), DateTimeFormatter.ISO_ZONED_DATE_TIME),
+                ZonedDateTime.parse(required(node, "plannedEndTime"), DateTimeFormatter.ISO_ZONED_DATE_TIME),
+                Trip.BookingStatus.valueOf(required(node, "bookingStatus"))
+        );
+    }
+
+    private static String required(JsonNode node, String name) {
+        var value = node.get(name);
+        if (value == null || !value.isTextual()) {
+            throw new IllegalArgumentException("missing field " + name);
+        }
+        return value.textValue();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("CSV field cannot contain a line break: " + value);
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String[] splitQuoted(String line) {
+        var fields = new ArrayList<String>(6);
+        var field = new StringBuilder();
+        var position = 0;
+        while (true) {
+            if (position < line.length() && line.charAt(position) == '"') {
+                position++;
+                while (true) {
+                    if (position >= line.length()) {
+                        throw new IllegalArgumentException("unterminated quoted field: " + line);
+                    }
+                    var c = line.charAt(position++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (position < line.length() && line.charAt(position) == '"') {
+                        field.append('"');
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                if (position < line.length() && line.charAt(position) != ',') {
+                    throw new IllegalArgumentException("unexpected content after quoted field at " + position + ": " + line);
+                }
+            } else {
+                var end = line.indexOf(',', position);
+                end = end < 0 ? line.length() : end;
+                field.append(line, position, end);
+                position = end;
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (position >= line.length()) {
+                return fields.toArray(new String[0]);
+            }
+            position++;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package chapter7.java.v2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+// ? 여행 파일을 세 단계로 나눠 읽어 들인다.
+// ?   읽기(호출 스레드) -> 청크 큐 -> 파싱(parsers개 스레드, 고객별로 묶음) -> 배치 큐 -> 병합(스레드 하나, addTrips)
+// ? 큐의 크기가 정해져 있어 뒤 단계가 밀리면 앞 단계가 멈추므로, 파일 크기와 상관없이 메모리에 올라가는 줄 수가 제한된다.
+// ? 시간은 대부분 시각 파싱에 쓰이므로 파싱 스레드 수에 거의 비례해 빨라진다.
+// ? 파싱은 순서 없이 끝나지만 병합은 청크 순서대로 하므로, 같은 id가 여러 번 나오면 파일에서 나중 줄이 남는다.
+// ? 고객 ID는 파싱 스레드에서 저장소 사전의 키로 바꿔 두므로, 스레드 하나인 병합 단계는 문자열을 다시 찾지 않는다.
+public class TripIngestion {
+
+    private static final Chunk END_OF_CHUNKS = new Chunk(-1, 0, List.of());
+    private static final Batch END_OF_BATCHES = new Batch(-1, new IntObjectMap<>(), 0);
+
+    private final int parsers;
+    private final int chunkSize;
+
+    public TripIngestion(int parsers, int chunkSize) {
+        if (parsers < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("parsers and chunkSize must be positive");
+        }
+        this.parsers = parsers;
+        this.chunkSize = chunkSize;
+    }
+
+    public TripIngestion() {
+        this(Runtime.getRuntime().availableProcessors(), 4096);
+    }
+
+    // ? 형식이 맞지 않는 줄은 건너뛰고 1부터 시작하는 줄 번호로 onInvalidLine에 전달한다.
+    // ? onInvalidLine은 여러 파싱 스레드에서 호출되므로 스레드 안전해야 한다.
+    public Result ingest(Path file, Format format, InMemoryTrips store, LongConsumer onInvalidLine) throws IOException {
+        var started = System.nanoTime();
+        var chunks = new ArrayBlockingQueue<Chunk>(parsers * 2);
+        var batches = new ArrayBlockingQueue<Batch>(parsers * 2);
+        // ? 읽었지만 아직 병합하지 않은 청크 수. 앞 청크를 기다리며 모아 두는 배치도 여기에 묶인다.
+        var window = new Semaphore(parsers * 4);
+        var rows = new LongAdder();
+        var invalid = new LongAdder();
+
+        var executor = Executors.newFixedThreadPool(parsers + 1, runnable -> {
+            var thread = new Thread(runnable, "trip-ingestion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            var tasks = new ArrayList<Future<?>>(parsers + 1);
+            for (int i = 0; i < parsers; i++) {
+                tasks.add(executor.submit(() -> {
+                    parse(chunks, batches, format, store.getCustomerIds(), invalid, onInvalidLine);
+                    return null;
+                }));
+            }
+            tasks.add(executor.submit(() -> {
+                merge(batches, store, rows, window);
+                return null;
+            }));
+
+            read(file, chunks, window, tasks);
+            for (var task : tasks) {
+                await(task);
+            }
+        } finally {
+            shutdown(executor);
+        }
+        return new Result(rows.sum(), invalid.sum(), Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private void read(Path file, BlockingQueue<Chunk> chunks, Semaphore window, List<Future<?>> tasks) throws IOException {
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long sequence = 0;
+            long lineNumber = 0;
+            var lines = new ArrayList<String>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    acquire(window, tasks);
+                    put(chunks, new Chunk(sequence++, lineNumber + 1, lines), tasks);
+                    lineNumber += lines.size();
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                acquire(window, tasks);
+                put(chunks, new Chunk(sequence, lineNumber + 1, lines), tasks);
+            }
+            put(chunks, END_OF_CHUNKS, tasks);
+        }
+    }
+
+    private static void parse(
+            BlockingQueue<Chunk> chunks,
+            BlockingQueue<Batch> batches,
+            Format format,
+            IdDictionary customerIds,
+            LongAdder invalid,
+            LongConsumer onInvalidLine
+    ) throws InterruptedException {
+        while (true) {
+            var chunk = chunks.take();
+            if (chunk == END_OF_CHUNKS) {
+                // ? 다른 파싱 스레드도 끝을 볼 수 있도록 되돌려 놓는다.
+                chunks.put(END_OF_CHUNKS);
+                batches.put(END_OF_BATCHES);
+                return;
+            }
+            // ? 청크 안에서 같은 id는 마지막 줄만 남긴다. 고객이 바뀐 경우에도 고객별로 묶은 뒤의 적용 순서와 상관없게 된다.
+            var latest = new LinkedHashMap<String, Trip>();
+            var rows = 0;
+            for (int i = 0; i < chunk.lines.size(); i++) {
+                var line = chunk.lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    var trip = format.parser.apply(line);
+                    latest.remove(trip.getId());
+                    latest.put(trip.getId(), trip);
+                    rows++;
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    invalid.increment();
+                    onInvalidLine.accept(chunk.firstLineNumber + i);
+                }
+            }
+            var tripsByCustomer = new IntObjectMap<List<Trip>>();
+            for (var trip : latest.values()) {
+                tripsByCustomer.computeIfAbsent(customerIds.keyOf(trip.getCustomerId()), key -> new ArrayList<>()).add(trip);
+            }
+            batches.put(new Batch(chunk.sequence, tripsByCustomer, rows));
+        }
+    }
+
+    // ? 앞 청크의 배치가 아직 오지 않았으면 뒤 배치는 모아 두었다가 순서가 되면 적용한다.
+    private void merge(
+            BlockingQueue<Batch> batches,
+            InMemoryTrips store,
+            LongAdder rows,
+            Semaphore window
+    ) throws InterruptedException {
+        var waiting = new HashMap<Long, Batch>();
+        long next = 0;
+        var finishedParsers = 0;
+        while (finishedParsers < parsers) {
+            var batch = batches.take();
+            if (batch == END_OF_BATCHES) {
+                finishedParsers++;
+                continue;
+            }
+            waiting.put(batch.sequence, batch);
+            for (var ready = waiting.remove(next); ready != null; ready = waiting.remove(next)) {
+                store.addTrips(ready.tripsByCustomer);
+                rows.add(ready.rows);
+                window.release();
+                next++;
+            }
+        }
+    }
+
+    private static void acquire(Semaphore window, List<Future<?>> tasks) throws IOException {
+        try {
+            while (!window.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                checkFailures(tasks);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while reading trips", e);
+        }
+    }
+
+    // ? 뒤 단계가 실패해 큐가 비지 않으면 읽기가 영원히 멈추므로 기다리는 동안 실패를 확인한다.
+    private static void put(BlockingQueue<Chunk> chunks, Chunk chunk, List<Future<?>> tasks) throws IOException {
+        try {
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                checkFailures(tasks);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while reading trips", e);
+        }
+    }
+
+    private static void checkFailures(List<Future<?>> tasks) throws IOException {
+        for (var task : tasks) {
+            if (task.isDone()) {
+                await(task);
+            }
+        }
+    }
+
+    private static void await(Future<?> task) throws IOException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while ingesting trips", e);
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UncheckedIOException(new IOException(cause));
+        }
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public enum Format {
+        CSV(TripFormat::fromCsv),
+        NDJSON(TripFormat::fromJson);
+
+        private final Function<String, Trip> parser;
+
+        Format(Function<String, Trip> parser) {
+            this.parser = parser;
+        }
+
+        // ? 확장자로 형식을 고른다: .csv, .ndjson, .jsonl
+        public static Format of(Path file) {
+            var name = file.getFileName().toString().toLowerCase();
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("unknown trip file format: " + file);
+        }
+    }
+
+    public static class Result {
+        private final long rows;
+        private final long invalidRows;
+        private final Duration elapsed;
+
+        public Result(long rows, long invalidRows, Duration elapsed) {
+            this.rows = rows;
+            this.invalidRows = invalidRows;
+            this.elapsed = elapsed;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getInvalidRows() {
+            return invalidRows;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public double rowsPerSecond() {
+            var nanos = elapsed.toNanos();
+            return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Result[rows=%d, invalid=%d, elapsed=%dms, rows/s=%.0f]",
+                    rows, invalidRows, elapsed.toMillis(), rowsPerSecond()
+            );
+        }
+    }
+
+    private static class Chunk {
+        private final long sequence;
+        private final long firstLineNumber;
+        private final List<String> lines;
+
+        Chunk(long sequence, long firstLineNumber, List<String> lines) {
+            this.sequence = sequence;
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+        }
+    }
+
+    private static class Batch {
+        private final long sequence;
+        private final IntObjectMap<List<Trip>> tripsByCustomer;
+        private final int rows;
+
+        Batch(long sequence, IntObjectMap<List<Trip>> tripsByCustomer, int rows) {
+            this.sequence = sequence;
+            this.tripsByCustomer = tripsByCustomer;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package chapter7.java.v2;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// ? 고객마다 여행 집합의 버전 목록(최신 -> 과거)을 둔다. 집합은 불변이고 쓸 때마다 새 버전을 앞에 붙인다.
+// ? 쓰기는 저장소 잠금 안에서 begin -> put... -> commit 순서로 하고, 읽는 쪽은 커밋된 버전만 고정(pin)할 수 있으므로
+// ? 반쯤 적용된 배치는 보이지 않는다. 목록을 따라가는 읽기는 잠금이 없다.
+// ? 고정된 버전 중 가장 오래된 것보다 더 오래된 버전은 아무도 볼 수 없으므로 잘라 낸다.
+// ? 고객은 IdDictionary의 촘촘한 정수 키이므로 목록의 머리를 키 위치의 배열 칸에 둔다.
+final class TripVersions {
+
+    private volatile AtomicReferenceArray<Version> chains = new AtomicReferenceArray<>(16);
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+
+    private final TreeMap<Long, Integer> pins = new TreeMap<>();
+    private volatile long committed;
+
+    long begin() {
+        return committed + 1;
+    }
+
+    void put(int customer, Set<Trip> trips, long version) {
+        var current = chains;
+        var head = customer < current.length() ? current.get(customer) : null;
+        if (head == null && trips.isEmpty()) {
+            return;
+        }
+        if (customer >= current.length()) {
+            current = grow(customer);
+        }
+        var added = new Version(version, trips, head);
+        current.set(customer, added);
+        if (head != null) {
+            truncate(added, oldestVisible());
+            if (added.older != null) {
+                dirty.add(customer);
+            }
+        }
+    }
+
+    void commit(long version) {
+        committed = version;
+    }
+
+    long pin() {
+        synchronized (pins) {
+            var version = committed;
+            pins.merge(version, 1, Integer::sum);
+            return version;
+        }
+    }
+
+    void unpin(long version) {
+        long oldest;
+        synchronized (pins) {
+            var count = pins.get(version);
+            if (count == null) {
+                throw new IllegalStateException("version " + version + " is not pinned");
+            }
+            if (count == 1) {
+                pins.remove(version);
+            } else {
+                pins.put(version, count - 1);
+            }
+            if (!pins.isEmpty() && pins.firstKey() <= version) {
+                // ? 더 오래된 버전을 보는 읽기가 남아 있으면 풀려나는 버전이 없다.
+                return;
+            }
+            oldest = pins.isEmpty() ? committed : pins.firstKey();
+        }
+        reclaim(oldest);
+    }
+
+    Set<Trip> visible(int customer, long version) {
+        var current = chains;
+        var trips = customer < 0 || customer >= current.length() ? null : visible(current.get(customer), version);
+        return trips == null ? Set.of() : trips;
+    }
+
+    Stream<Trip> scan(long version) {
+        var current = chains;
+        return IntStream.range(0, current.length())
+                .mapToObj(current::get)
+                .filter(Objects::nonNull)
+                .map(head -> visible(head, version))
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream);
+    }
+
+    // ? 아무도 보지 않는 과거 버전을 잘라 내고, 빈 집합만 남은 고객은 지운다.
+    private void reclaim(long oldest) {
+        for (var customer : dirty) {
+            var head = chains.get(customer);
+            if (head == null) {
+                dirty.remove(customer);
+                continue;
+            }
+            truncate(head, oldest);
+            if (head.older == null) {
+                dirty.remove(customer);
+                if (head.trips.isEmpty() && head.version <= oldest) {
+                    // ? 배열을 키우는 중에 비우면 새 배열에 옛 머리가 남으므로 grow와 같은 잠금 안에서 비운다.
+                    synchronized (this) {
+                        chains.compareAndSet(customer, head, null);
+                    }
+                }
+            }
+        }
+    }
+
+    // ? 쓰는 쪽(저장소 잠금 안)만 부른다. 새 배열을 다 채운 뒤 바꿔 끼우므로 읽는 쪽은 잠금이 없다.
+    private synchronized AtomicReferenceArray<Version> grow(int customer) {
+        var current = chains;
+        var grown = new AtomicReferenceArray<Version>(Math.max(customer + 1, current.length() * 2));
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        chains = grown;
+        return grown;
+    }
+
+    private long oldestVisible() {
+        synchronized (pins) {
+            return pins.isEmpty() ? committed : pins.firstKey();
+        }
+    }
+
+    // ? oldest 이하인 버전 중 가장 최신 것까지만 남긴다. 그보다 뒤는 어떤 읽기도 고를 일이 없다.
+    private static void truncate(Version head, long oldest) {
+        for (var version = head; version != null; version = version.older) {
+            if (version.version <= oldest) {
+                version.older = null;
+                return;
+            }
+        }
+    }
+
+    private static Set<Trip> visible(Version head, long version) {
+        for (var candidate = head; candidate != null; candidate = candidate.older) {
+            if (candidate.version <= version) {
+                return candidate.trips;
+            }
+        }
+        return null;
+    }
+
+    private static final class Version {
+        private final long version;
+        private final Set<Trip> trips;
+        private volatile Version older;
+
+        Version(long version, Set<Trip> trips, Version older) {
+            this.version = version;
+            this.trips = trips;
+            this.older = older;
+        }
+    }
+}
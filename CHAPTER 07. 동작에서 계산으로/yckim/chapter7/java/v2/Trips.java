@@ -8,4 +8,9 @@ public interface Trips {
     Set<Trip> tripsFor(String customerId);
 
     Set<Trip> currentTripsFor(String customerId, Instant at);
+
+    // ? false면 이 고객의 여행은 확실히 없다. true는 있을 수도 있다는 뜻이다.
+    default boolean mayHaveTripsFor(String customerId) {
+        return true;
+    }
 }
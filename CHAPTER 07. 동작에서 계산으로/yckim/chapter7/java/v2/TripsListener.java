@@ -0,0 +1,12 @@
+package chapter7.java.v2;
+
+// ? 저장소의 여행이 바뀔 때마다 저장소 잠금을 잡은 채로 호출된다. 오래 걸리는 일은 하지 않는다.
+// ?   추가: before == null, 삭제: after == null, 교체: 둘 다 있다.
+// ? 한 번의 쓰기(배치 포함)에서 바뀐 여행들을 모두 알린 뒤, 같은 잠금 안에서 committed가 그 쓰기의 번호로 불린다.
+public interface TripsListener {
+    void tripChanged(Trip before, Trip after);
+
+    // ? 번호는 변경이 있던 쓰기마다 1씩 늘어난다.
+    default void committed(long version) {
+    }
+}
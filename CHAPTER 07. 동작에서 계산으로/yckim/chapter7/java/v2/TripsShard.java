@@ -0,0 +1,25 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// ? ShardedTrips가 부르는 샤드 하나. 원격 노드라면 메서드 하나가 네트워크 왕복 한 번이 되도록 모두 묶음으로 주고받는다.
+// ? 결과 맵에는 여행이 있는 고객만 들어 있다.
+public interface TripsShard {
+
+    String getName();
+
+    Map<String, Set<Trip>> tripsFor(Collection<String> customerIds);
+
+    Map<String, Set<Trip>> currentTripsFor(Collection<String> customerIds, Instant at);
+
+    void addTrips(Map<String, ? extends Collection<Trip>> tripsByCustomer);
+
+    // ? 재배치용: 샤드가 가진 고객 목록과, 고객을 여행째로 넘겨주며 지우기
+    List<String> customerIds();
+
+    Map<String, Set<Trip>> removeCustomers(Collection<String> customerIds);
+}
@@ -0,0 +1,74 @@
+package chapter7.java.v2;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// ? 한 시점의 저장소를 잠금 없이 읽는다. 만든 뒤에 들어온 쓰기는 보이지 않는다.
+// ? 닫을 때까지 이 버전의 여행이 메모리에 남으므로 try-with-resources로 쓴다.
+public class TripsSnapshot implements KeyedTrips, AutoCloseable {
+
+    private final TripVersions versions;
+    private final long version;
+    private final IdDictionary customerIds;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    TripsSnapshot(TripVersions versions, long version, IdDictionary customerIds) {
+        this.versions = versions;
+        this.version = version;
+        this.customerIds = customerIds;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public IdDictionary getCustomerIds() {
+        return customerIds;
+    }
+
+    @Override
+    public Set<Trip> tripsFor(String customerId) {
+        return tripsFor(customerIds.find(customerId));
+    }
+
+    @Override
+    public Set<Trip> currentTripsFor(String customerId, Instant at) {
+        return currentTripsFor(customerIds.find(customerId), at);
+    }
+
+    @Override
+    public Set<Trip> tripsFor(int customer) {
+        checkOpen();
+        return versions.visible(customer, version);
+    }
+
+    @Override
+    public Set<Trip> currentTripsFor(int customer, Instant at) {
+        return tripsFor(customer).stream()
+                .filter(trip -> trip.isPlannedToBeActiveAt(at))
+                .collect(Collectors.toSet());
+    }
+
+    // ? 모든 고객의 여행. 병렬 스트림으로 바꿔 분석해도 된다.
+    public Stream<Trip> trips() {
+        checkOpen();
+        return versions.scan(version);
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            versions.unpin(version);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("snapshot " + version + " is closed");
+        }
+    }
+}
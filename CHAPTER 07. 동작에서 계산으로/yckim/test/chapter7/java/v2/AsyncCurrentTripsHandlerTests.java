@@ -0,0 +1,39 @@
+package chapter7.java.v2;
+
+import static java.net.HttpURLConnection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncCurrentTripsHandlerTests {
+
+    private final AsyncCurrentTripsHandler handler = new AsyncCurrentTripsHandler(
+            (customerId, at) -> CompletableFuture.completedFuture(Optional.empty())
+    );
+
+    @Test
+    public void malformedCustomerIdIsBadRequest() {
+        var response = handler.handle(request("/trips?customerId=%zz"));
+        assertEquals(HTTP_BAD_REQUEST, response.join().getStatus());
+    }
+
+    @Test
+    public void missingCustomerIdIsBadRequest() {
+        var response = handler.handle(request("/trips"));
+        assertEquals(HTTP_BAD_REQUEST, response.join().getStatus());
+    }
+
+    @Test
+    public void unknownCustomerIsNotFound() {
+        var response = handler.handle(request("/trips?customerId=nobody"));
+        assertEquals(HTTP_NOT_FOUND, response.join().getStatus());
+    }
+
+    private static Request request(String uri) {
+        return Request.fromUri(uri.getBytes(StandardCharsets.US_ASCII), "");
+    }
+}
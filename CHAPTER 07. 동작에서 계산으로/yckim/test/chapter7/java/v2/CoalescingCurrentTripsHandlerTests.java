@@ -0,0 +1,36 @@
+package chapter7.java.v2;
+
+import static java.net.HttpURLConnection.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class CoalescingCurrentTripsHandlerTests {
+
+    private final CoalescingCurrentTripsHandler handler = new CoalescingCurrentTripsHandler(
+            new CurrentTripsHandler((customerId, at) -> Optional.empty()),
+            Clock.fixed(Instant.EPOCH, ZoneOffset.UTC),
+            Duration.ofMillis(100)
+    );
+
+    @Test
+    public void malformedCustomerIdIsBadRequest() {
+        assertEquals(HTTP_BAD_REQUEST, handler.handle(request("/trips?customerId=%zz")).getStatus());
+    }
+
+    @Test
+    public void unknownCustomerIsNotFound() {
+        assertEquals(HTTP_NOT_FOUND, handler.handle(request("/trips?customerId=nobody")).getStatus());
+    }
+
+    private static Request request(String uri) {
+        return Request.fromUri(uri.getBytes(StandardCharsets.US_ASCII), "");
+    }
+}
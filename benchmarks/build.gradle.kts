@@ -0,0 +1,56 @@
+plugins {
+    java
+    kotlin("jvm") version "2.2.0"
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+repositories {
+    mavenCentral()
+}
+
+// 벤치마크가 비교하는 챕터들. 각 챕터의 yckim 디렉터리가 자바/코틀린 소스 루트다.
+val chapters = listOf(
+    "CHAPTER 01. 소개",
+    "CHAPTER 03. 자바 클래스에서 코틀린 클래스로",
+    "CHAPTER 04. 옵셔널에서 널이 될 수 있는 타입으로",
+    "CHAPTER 07. 동작에서 계산으로",
+    "CHAPTER 08. 정적 메서드에서 최상위 함수로",
+).map { rootDir.resolve("../$it/yckim") }
+
+// 각 yckim 디렉터리의 test 아래는 테스트 소스 루트다.
+sourceSets {
+    main {
+        java.srcDirs(chapters)
+        java.exclude("test/**")
+        kotlin.srcDirs(chapters)
+        kotlin.exclude("test/**")
+    }
+    test {
+        java.srcDirs(chapters.map { it.resolve("test") })
+    }
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.17.2")
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    jmhVersion.set("1.37")
+}
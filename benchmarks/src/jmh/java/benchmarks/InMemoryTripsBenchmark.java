@@ -0,0 +1,108 @@
+package benchmarks;
+
+import benchmarks.data.SyntheticData;
+import chapter7.java.v2.Trip;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// ? chapter7 자바 InMemoryTrips와 코틀린 InMemoryTrips의 조회/추가 비용 비교
+// ? 고객당 여행 수는 SyntheticData의 멱법칙 분포를 maxTripsPerCustomer에서 자른 것이다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InMemoryTripsBenchmark {
+
+    @Param({"1000", "100000"})
+    private int customers;
+
+    @Param({"3", "30"})
+    private int maxTripsPerCustomer;
+
+    private Clock clock;
+    private List<Trip> initialTrips;
+    private chapter7.java.v2.InMemoryTrips javaTrips;
+    private chapter7.kotlin.v1.InMemoryTrips kotlinTrips;
+    private List<Trip> extraTrips;
+    private Instant now;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        clock = Clock.fixed(Instant.parse("2023-03-01T00:00:00Z"), ZoneOffset.UTC);
+        now = clock.instant();
+        var data = new SyntheticData(42, now, 60);
+        initialTrips = data.trips(customers, maxTripsPerCustomer).toList();
+        javaTrips = new chapter7.java.v2.InMemoryTrips(clock);
+        kotlinTrips = new chapter7.kotlin.v1.InMemoryTrips(clock);
+        data.loadInto(javaTrips, customers, maxTripsPerCustomer);
+        initialTrips.forEach(kotlinTrips::addTrip);
+        // ? 추가할 여행의 본보기. 이미 있는 여행에서 골라 고객과 기간 분포가 같게 한다.
+        var random = new SplittableRandom(42);
+        extraTrips = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            extraTrips.add(initialTrips.get(random.nextInt(initialTrips.size())));
+        }
+    }
+
+    private String nextCustomer() {
+        next = (next + 7919) % customers;
+        return "customer-" + next;
+    }
+
+    @Benchmark
+    public Set<Trip> javaCurrentTripsFor() {
+        return javaTrips.currentTripsFor(nextCustomer(), now);
+    }
+
+    @Benchmark
+    public Set<Trip> kotlinCurrentTripsFor() {
+        return kotlinTrips.currentTripsFor(nextCustomer(), now);
+    }
+
+    // ? 같은 id를 다시 넣으면 자바는 교체, 코틀린은 아무것도 하지 않으므로 추가는 호출마다 처음 보는 id로 잰다.
+    // ? 여행 객체를 만드는 비용은 양쪽에 똑같이 들어간다. 저장소는 반복마다 처음 상태로 되돌린다.
+    @Benchmark
+    public void javaAddTrip(AddState state) {
+        state.javaTrips.addTrip(newTrip(state.next++));
+    }
+
+    @Benchmark
+    public void kotlinAddTrip(AddState state) {
+        state.kotlinTrips.addTrip(newTrip(state.next++));
+    }
+
+    private Trip newTrip(int n) {
+        var template = extraTrips.get(n % extraTrips.size());
+        return new Trip(
+                "x" + n, template.getCustomerId(), template.getName(),
+                template.getPlannedStartTime(), template.getPlannedEndTime(), template.getBookingStatus()
+        );
+    }
+
+    @State(Scope.Thread)
+    public static class AddState {
+        private chapter7.java.v2.InMemoryTrips javaTrips;
+        private chapter7.kotlin.v1.InMemoryTrips kotlinTrips;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(InMemoryTripsBenchmark benchmark) {
+            javaTrips = new chapter7.java.v2.InMemoryTrips(benchmark.clock);
+            kotlinTrips = new chapter7.kotlin.v1.InMemoryTrips(benchmark.clock);
+            benchmark.initialTrips.forEach(javaTrips::addTrip);
+            benchmark.initialTrips.forEach(kotlinTrips::addTrip);
+            next = 0;
+        }
+    }
+}
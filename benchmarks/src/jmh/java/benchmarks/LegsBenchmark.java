@@ -0,0 +1,48 @@
+package benchmarks;
+
+import benchmarks.data.SyntheticData;
+import chapter4.kotlin.Leg;
+import chapter4.kotlin.v3.LegsKt;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// ? 반복문(java v1), 스트림(java v3), maxByOrNull + takeIf(kotlin v3) 비교
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LegsBenchmark {
+
+    @Param({"5", "50", "5000"})
+    private int size;
+
+    private List<Leg> legs;
+    private final Duration duration = Duration.ofHours(6);
+
+    @Setup
+    public void setUp() {
+        legs = new SyntheticData(42, Instant.parse("2023-01-15T00:00:00Z"), 15).legs(size);
+    }
+
+    @Benchmark
+    public Optional<Leg> javaV1() {
+        return chapter4.java.v1.Legs.findLongestLegOver(legs, duration);
+    }
+
+    @Benchmark
+    public Optional<Leg> javaV3() {
+        return chapter4.java.v3.Legs.findLongestLegOver(legs, duration);
+    }
+
+    @Benchmark
+    public Leg kotlinV3() {
+        return LegsKt.longestOver(legs, legs, duration);
+    }
+}
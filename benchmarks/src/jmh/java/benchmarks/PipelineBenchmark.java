@@ -0,0 +1,84 @@
+package benchmarks;
+
+import benchmarks.data.SyntheticData;
+import chapter1.java.sum.IntSeq;
+import chapter1.java.sum.Seq;
+import chapter7.java.v2.Trip;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// ? 같은 파이프라인을 java.util.stream과 chapter1의 Seq(단계를 한 반복문으로 합치는 지연 시퀀스)로 실행해 비교한다.
+// ?   sum      : filter -> map -> fold (IntStream / IntSeq)
+// ?   tracking : Tracking.currentTripFor의 BOOKED 필터와 충돌 검사(Seq는 두 개를 찾으면 멈춘다)
+// ?   current  : InMemoryTrips.currentTripsFor의 진행 중 여행 Set 만들기
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PipelineBenchmark {
+
+    @Param({"3", "1000", "1000000"})
+    private int size;
+
+    private int[] numbers;
+    private Set<Trip> trips;
+    private Instant now;
+
+    @Setup
+    public void setUp() {
+        numbers = IntStream.range(0, size).map(i -> i % 100).toArray();
+        now = Instant.parse("2023-03-01T00:00:00Z");
+        trips = new SyntheticData(42, now, 30)
+                .trips(size, 500)
+                .limit(size)
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public int sumStream() {
+        return IntStream.of(numbers).filter(n -> n % 3 != 0).map(n -> n * 2).reduce(0, Integer::sum);
+    }
+
+    @Benchmark
+    public int sumSeq() {
+        return IntSeq.of(numbers).filter(n -> n % 3 != 0).map(n -> n * 2).fold(0, Integer::sum);
+    }
+
+    @Benchmark
+    public List<Trip> trackingStream() {
+        return trips.stream()
+                .filter(trip -> trip.getBookingStatus() == Trip.BookingStatus.BOOKED)
+                .limit(2)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Trip> trackingSeq() {
+        return Seq.of(trips)
+                .filter(trip -> trip.getBookingStatus() == Trip.BookingStatus.BOOKED)
+                .take(2)
+                .toList();
+    }
+
+    @Benchmark
+    public Set<Trip> currentStream() {
+        return trips.stream()
+                .filter(trip -> trip.isPlannedToBeActiveAt(now))
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Set<Trip> currentSeq() {
+        return Seq.of(trips)
+                .filter(trip -> trip.isPlannedToBeActiveAt(now))
+                .toSet();
+    }
+}
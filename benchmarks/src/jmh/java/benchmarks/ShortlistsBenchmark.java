@@ -0,0 +1,54 @@
+package benchmarks;
+
+import benchmarks.data.ShortlistItem;
+import benchmarks.data.SyntheticData;
+import chapter8.java.v1.Shortlists;
+import chapter8.kotlin.v3.ShortlistsKt;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ? Stream.concat(limit, skip)로 항목을 지우는 자바 버전과 take + drop을 쓰는 코틀린 버전 비교
+// ? 정렬은 HasPrice와 HasRating을 함께 쓰는 byValue(평점 / 가격)로 비교한다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ShortlistsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private List<ShortlistItem> shortlist;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        shortlist = List.copyOf(new SyntheticData(42, Instant.EPOCH, 0).shortlistItems(size));
+        index = size / 2;
+    }
+
+    @Benchmark
+    public List<ShortlistItem> javaRemoveItemAt() {
+        return Shortlists.removeItemAt(shortlist, index);
+    }
+
+    @Benchmark
+    public List<ShortlistItem> kotlinWithoutItemAt() {
+        return ShortlistsKt.withoutItemAt(shortlist, index);
+    }
+
+    @Benchmark
+    public List<ShortlistItem> javaSortedByValue() {
+        return Shortlists.sorted(shortlist, Shortlists.byValue());
+    }
+
+    @Benchmark
+    public List<ShortlistItem> kotlinSortedByValue() {
+        return ShortlistsKt.sorted(shortlist, ShortlistsKt.byValue());
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import chapter1.java.sum.AddIntegers;
+import chapter1.java.sum.Vectors;
+import chapter1.kotlin.sum.SumKt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+// ? 자바의 Vectors.fold와 Sum.kt의 IntArray.fold(0, Int::plus)를 같은 크기로 비교한다.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SumBenchmark {
+
+    @Param({"3", "1000", "1000000"})
+    private int size;
+
+    private Vector<Integer> counts;
+    private int[] numbers;
+
+    @Setup
+    public void setUp() {
+        counts = new Vector<>(size);
+        numbers = new int[size];
+        for (int i = 0; i < size; i++) {
+            counts.add(i % 100);
+            numbers[i] = i % 100;
+        }
+    }
+
+    @Benchmark
+    public int javaVectorsFold() {
+        return (Integer) Vectors.fold(counts, 0, new AddIntegers());
+    }
+
+    @Benchmark
+    public int kotlinIntArrayFold() {
+        return SumKt.sum(numbers);
+    }
+}
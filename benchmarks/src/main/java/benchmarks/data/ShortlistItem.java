@@ -0,0 +1,36 @@
+package benchmarks.data;
+
+import chapter8.kotlin.v1.HasPrice;
+import chapter8.kotlin.v1.HasRating;
+
+public class ShortlistItem implements HasPrice, HasRating {
+
+    private final String name;
+    private final int price;
+    private final double rating;
+
+    public ShortlistItem(String name, int price, double rating) {
+        this.name = name;
+        this.price = price;
+        this.rating = rating;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getPrice() {
+        return price;
+    }
+
+    @Override
+    public double getRating() {
+        return rating;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(price=" + price + ", rating=" + rating + ")";
+    }
+}
@@ -0,0 +1,146 @@
+package benchmarks.data;
+
+import chapter4.kotlin.Leg;
+import chapter7.java.v2.InMemoryTrips;
+import chapter7.java.v2.Trip;
+import chapter7.java.v2.TripFormat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// ? 같은 seed면 항상 같은 데이터를 만든다.
+// ? 고객마다 seed에서 파생한 난수 생성기를 쓰므로 병렬로 만들어도, 일부만 만들어도 결과가 같다.
+public class SyntheticData {
+
+    private static final List<ZoneId> ZONES = List.of(
+            ZoneId.of("Europe/London"), ZoneId.of("Europe/Paris"), ZoneId.of("America/New_York"),
+            ZoneId.of("America/Los_Angeles"), ZoneId.of("Asia/Seoul"), ZoneId.of("Asia/Tokyo"),
+            ZoneId.of("Australia/Sydney"), ZoneId.of("UTC")
+    );
+
+    private final long seed;
+    private final Instant origin;
+    private final int spanDays;
+
+    // ? 여행은 origin을 중심으로 앞뒤 spanDays 안에서 시작한다.
+    public SyntheticData(long seed, Instant origin, int spanDays) {
+        this.seed = seed;
+        this.origin = origin;
+        this.spanDays = spanDays;
+    }
+
+    // ? 고객당 여행 수는 멱법칙(파레토 분포, alpha = 1.5)을 따른다. 대부분 한두 개, 소수는 수백 개.
+    public Stream<Trip> trips(int customers, int maxTripsPerCustomer) {
+        return IntStream.range(0, customers)
+                .boxed()
+                .flatMap(customer -> tripsOf(customer, maxTripsPerCustomer));
+    }
+
+    public long loadInto(InMemoryTrips store, int customers, int maxTripsPerCustomer) {
+        var count = new long[1];
+        trips(customers, maxTripsPerCustomer).forEachOrdered(trip -> {
+            store.addTrip(trip);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    public long writeTripsCsv(Path file, int customers, int maxTripsPerCustomer) {
+        return write(file, trips(customers, maxTripsPerCustomer), TripFormat::toCsv);
+    }
+
+    public long writeTripsNdjson(Path file, int customers, int maxTripsPerCustomer) {
+        return write(file, trips(customers, maxTripsPerCustomer), TripFormat::toJson);
+    }
+
+    public List<Leg> legs(int count) {
+        var result = new ArrayList<Leg>(count);
+        for (int i = 0; i < count; i++) {
+            var random = randomFor(0x1E60_0000_0000L + i);
+            var start = startTime(random);
+            result.add(new Leg("leg " + i, start, start.plusMinutes(10 + random.nextInt(60 * 16))));
+        }
+        return result;
+    }
+
+    // ? 가격은 로그 정규 분포, 평점은 4점 근처에 몰린 1~5점
+    public List<ShortlistItem> shortlistItems(int count) {
+        var result = new ArrayList<ShortlistItem>(count);
+        for (int i = 0; i < count; i++) {
+            var random = randomFor(0x5407_0000_0000L + i);
+            var price = (int) Math.max(1, Math.round(Math.exp(4.5 + gaussian(random))));
+            var rating = Math.max(1.0, Math.min(5.0, 4.0 + gaussian(random) * 0.7));
+            result.add(new ShortlistItem("item " + i, price, Math.round(rating * 10) / 10.0));
+        }
+        return result;
+    }
+
+    private Stream<Trip> tripsOf(int customer, int maxTripsPerCustomer) {
+        var random = randomFor(customer);
+        var tripCount = (int) Math.min(maxTripsPerCustomer, pareto(random, 1.5));
+        var customerId = "customer-" + customer;
+        var trips = new ArrayList<Trip>(tripCount);
+        for (int i = 0; i < tripCount; i++) {
+            var start = startTime(random);
+            // ? 여행 기간은 한 시간에서 몇 주까지, 짧은 여행이 많다.
+            var hours = 1 + (long) Math.min(24 * 60, Math.exp(3 + gaussian(random) * 1.2));
+            trips.add(new Trip(
+                    customerId + "-trip-" + i,
+                    customerId,
+                    "trip " + i,
+                    start,
+                    start.plusHours(hours),
+                    random.nextInt(10) == 0 ? Trip.BookingStatus.NOT_BOOKED : Trip.BookingStatus.BOOKED
+            ));
+        }
+        return trips.stream();
+    }
+
+    private ZonedDateTime startTime(SplittableRandom random) {
+        var offsetMinutes = random.nextLong(-spanDays * 24L * 60, spanDays * 24L * 60 + 1);
+        return origin.plusSeconds(offsetMinutes * 60).atZone(ZONES.get(random.nextInt(ZONES.size())));
+    }
+
+    private SplittableRandom randomFor(long key) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + key);
+    }
+
+    private static double pareto(SplittableRandom random, double alpha) {
+        return Math.floor(Math.pow(1 - random.nextDouble(), -1 / alpha));
+    }
+
+    // ? Box-Muller 변환
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static long write(Path file, Stream<Trip> trips, Function<Trip, String> format) {
+        var count = new long[1];
+        try (var writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            trips.forEachOrdered(trip -> {
+                try {
+                    writer.write(format.apply(trip));
+                    writer.write('\n');
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+}